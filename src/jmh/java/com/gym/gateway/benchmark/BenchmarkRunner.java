@@ -0,0 +1,24 @@
+package com.gym.gateway.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Ejecuta los benchmarks con el profiler de GC para reportar gc.alloc.rate.norm (bytes por operación)
+// además del throughput. Acepta una expresión regular opcional para filtrar benchmarks.
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(args.length > 0 ? args[0] : "com.gym.gateway.*Benchmark.*")
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
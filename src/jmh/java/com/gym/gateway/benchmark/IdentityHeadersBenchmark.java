@@ -0,0 +1,83 @@
+package com.gym.gateway.benchmark;
+
+import com.gym.gateway.security.GatewayIdentity;
+import com.gym.gateway.security.IdentityPropagation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Mutación de cabeceras X-User-* que hacen customGlobalFilter y JwtTokenRelay en cada petición proxied
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class IdentityHeadersBenchmark {
+
+    private IdentityPropagation identityPropagation;
+    private Jwt jwt;
+    private Context securityContext;
+
+    @Setup
+    public void setUp() {
+        identityPropagation = new IdentityPropagation(50_000, Duration.ofMinutes(5));
+        jwt = Jwt.withTokenValue("eyJhbGciOiJSUzI1NiJ9.benchmark.signature")
+                .header("alg", "RS256")
+                .subject("4f6c2d1e-8a1b-4c3d-9e2f-1a2b3c4d5e6f")
+                .claim("preferred_username", "ana.lopez")
+                .claim("email", "ana.lopez@email.com")
+                .claim("realm_access", Map.of("roles", List.of("ROLE_MEMBER", "offline_access", "uma_authorization")))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plus(Duration.ofHours(1)))
+                .build();
+        securityContext = ReactiveSecurityContextHolder.withAuthentication(new JwtAuthenticationToken(jwt));
+    }
+
+    @Benchmark
+    public GatewayIdentity identityOf() {
+        return identityPropagation.identityOf(jwt);
+    }
+
+    @Benchmark
+    public void relay(Blackhole blackhole) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/class-microservice/api/classes/1")
+                        .header("Authorization", "Bearer " + jwt.getTokenValue()));
+        GatewayFilterChain chain = filtered -> {
+            blackhole.consume(filtered.getRequest().getHeaders());
+            return Mono.empty();
+        };
+        identityPropagation.relay(exchange, chain)
+                .contextWrite(securityContext)
+                .block();
+    }
+
+    // Coste de crear el exchange de prueba, para descontarlo del benchmark relay
+    @Benchmark
+    public MockServerWebExchange exchangeBaseline() {
+        return MockServerWebExchange.from(
+                MockServerHttpRequest.get("/class-microservice/api/classes/1")
+                        .header("Authorization", "Bearer " + jwt.getTokenValue()));
+    }
+}
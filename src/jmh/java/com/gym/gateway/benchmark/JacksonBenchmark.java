@@ -0,0 +1,104 @@
+package com.gym.gateway.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gym.gateway.dto.MemberSummaryDTO;
+import com.gym.gateway.model.GymClass;
+import com.gym.gateway.model.GymClassView;
+import com.gym.gateway.model.Payment;
+import com.gym.gateway.model.PaymentAmount;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// (De)serialización Jackson de las respuestas de class/payment-microservice y del resumen devuelto al cliente,
+// en JSON y en los formatos binarios que se negocian con Accept (CBOR y Smile)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JacksonBenchmark {
+
+    private static final TypeReference<List<GymClass>> GYM_CLASS_LIST = new TypeReference<>() { };
+    private static final TypeReference<List<GymClassView>> GYM_CLASS_VIEW_LIST = new TypeReference<>() { };
+    private static final TypeReference<List<Payment>> PAYMENT_LIST = new TypeReference<>() { };
+    private static final TypeReference<List<PaymentAmount>> PAYMENT_AMOUNT_LIST = new TypeReference<>() { };
+
+    @Param({"5", "50"})
+    private int classCount;
+
+    @Param({"12", "1200"})
+    private int paymentCount;
+
+    private ObjectMapper objectMapper;
+    private ObjectMapper cborMapper;
+    private ObjectMapper smileMapper;
+    private byte[] classesJson;
+    private byte[] paymentsJson;
+    private byte[] paymentsSmile;
+    private MemberSummaryDTO summary;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = SampleData.objectMapper();
+        classesJson = objectMapper.writeValueAsBytes(SampleData.classes(classCount, 200));
+        paymentsJson = objectMapper.writeValueAsBytes(SampleData.payments(paymentCount));
+        cborMapper = SampleData.cborMapper();
+        smileMapper = SampleData.smileMapper();
+        paymentsSmile = smileMapper.writeValueAsBytes(SampleData.payments(paymentCount));
+        summary = SampleData.summary(classCount, paymentCount);
+    }
+
+    @Benchmark
+    public List<GymClass> readGymClasses() throws IOException {
+        return objectMapper.readValue(classesJson, GYM_CLASS_LIST);
+    }
+
+    // mismo payload que readGymClasses, saltando las listas de inscritos y equipamiento
+    @Benchmark
+    public List<GymClassView> readGymClassViews() throws IOException {
+        return objectMapper.readValue(classesJson, GYM_CLASS_VIEW_LIST);
+    }
+
+    @Benchmark
+    public List<Payment> readPayments() throws IOException {
+        return objectMapper.readValue(paymentsJson, PAYMENT_LIST);
+    }
+
+    @Benchmark
+    public List<Payment> readPaymentsSmile() throws IOException {
+        return smileMapper.readValue(paymentsSmile, PAYMENT_LIST);
+    }
+
+    @Benchmark
+    public List<PaymentAmount> readPaymentAmounts() throws IOException {
+        return objectMapper.readValue(paymentsJson, PAYMENT_AMOUNT_LIST);
+    }
+
+    @Benchmark
+    public byte[] writeMemberSummary() throws IOException {
+        return objectMapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] writeMemberSummaryCbor() throws IOException {
+        return cborMapper.writeValueAsBytes(summary);
+    }
+
+    @Benchmark
+    public byte[] writeMemberSummarySmile() throws IOException {
+        return smileMapper.writeValueAsBytes(summary);
+    }
+}
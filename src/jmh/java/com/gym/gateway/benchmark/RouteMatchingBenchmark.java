@@ -0,0 +1,140 @@
+package com.gym.gateway.benchmark;
+
+import com.gym.gateway.route.PrefixPathRoutePredicateFactory;
+import com.gym.gateway.route.PrefixRouteTrie;
+import com.gym.gateway.route.PrefixRoutes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// Selección de ruta y reescritura del path según crece el número de rutas: Path + RewritePath (un PathPattern
+// por ruta en orden y una regex por petición) frente a PrefixPath + PrefixRewrite. Como hace Spring Cloud
+// Gateway, se evalúa el predicado de cada ruta en orden hasta la que acepta; con PrefixPath el trie se recorre
+// una vez por exchange y el resto de evaluaciones son una búsqueda del prefijo y la lectura de un atributo.
+// El path pedido es el de la última ruta, el peor caso del recorrido en orden.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RouteMatchingBenchmark {
+
+    @Param({"6", "100", "500"})
+    private int routeCount;
+
+    private PathPattern[] pathPatterns;
+    private List<Predicate<ServerWebExchange>> prefixPredicates;
+    private PrefixRouteTrie trie;
+    private String path;
+    private String regexp;
+    private String replacement;
+    private String from;
+    private String to;
+
+    @Setup
+    public void setUp() {
+        List<String> prefixes = new ArrayList<>(routeCount);
+        List<RouteDefinition> definitions = new ArrayList<>(routeCount);
+        pathPatterns = new PathPattern[routeCount];
+        for (int i = 0; i < routeCount; i++) {
+            String prefix = "/service-" + i + "-microservice/api/resource-" + i;
+            prefixes.add(prefix);
+            pathPatterns[i] = PathPatternParser.defaultInstance.parse(prefix + "/**");
+            RouteDefinition definition = new RouteDefinition();
+            definition.setId("route-" + i);
+            definition.setPredicates(List.of(new PredicateDefinition("PrefixPath=" + prefix)));
+            definitions.add(definition);
+        }
+        trie = PrefixRouteTrie.of(prefixes);
+
+        // mismo camino que en el gateway: el trie se publica al recargar las rutas
+        PrefixRoutes prefixRoutes = new PrefixRoutes(() -> Flux.fromIterable(definitions));
+        prefixRoutes.onRoutesRefreshed(new RefreshRoutesResultEvent(this));
+        PrefixPathRoutePredicateFactory factory = new PrefixPathRoutePredicateFactory(prefixRoutes);
+        prefixPredicates = new ArrayList<>(routeCount);
+        for (String prefix : prefixes) {
+            PrefixPathRoutePredicateFactory.Config config = new PrefixPathRoutePredicateFactory.Config();
+            config.setPrefix(prefix);
+            prefixPredicates.add(factory.apply(config));
+        }
+
+        int last = routeCount - 1;
+        from = prefixes.get(last);
+        to = "/api/resource-" + last;
+        path = from + "/member/42";
+        regexp = from + "/(?<segment>.*)";
+        replacement = to + "/${segment}";
+    }
+
+    // PathRoutePredicateFactory: un PathPattern por ruta contra el path del exchange
+    @Benchmark
+    public int pathPatternRoutes() {
+        ServerWebExchange exchange = exchange();
+        for (int i = 0; i < pathPatterns.length; i++) {
+            if (pathPatterns[i].matches(exchange.getRequest().getPath().pathWithinApplication())) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // PrefixPathRoutePredicateFactory: los N predicados reales, cada uno con PrefixRoutes.matches
+    @Benchmark
+    public int prefixPathRoutes() {
+        ServerWebExchange exchange = exchange();
+        for (int i = 0; i < prefixPredicates.size(); i++) {
+            if (prefixPredicates.get(i).test(exchange)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // Coste de crear el exchange de prueba, para descontarlo de los dos anteriores
+    @Benchmark
+    public ServerWebExchange exchangeBaseline() {
+        return exchange();
+    }
+
+    // Solo el recorrido del trie, que se hace una vez por exchange
+    @Benchmark
+    public String prefixTrie() {
+        return trie.longestMatch(path);
+    }
+
+    // RewritePathGatewayFilterFactory hace path.replaceAll(regexp, replacement) en cada petición
+    @Benchmark
+    public String regexRewrite() {
+        return path.replaceAll(regexp, replacement);
+    }
+
+    @Benchmark
+    public String prefixRewrite() {
+        return PrefixRouteTrie.rewrite(path, from, to);
+    }
+
+    private ServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    }
+}
@@ -0,0 +1,143 @@
+package com.gym.gateway.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.gym.gateway.dto.ClassSummaryDTO;
+import com.gym.gateway.dto.MemberSummaryDTO;
+import com.gym.gateway.dto.PaymentSummaryDTO;
+import com.gym.gateway.model.GymClass;
+import com.gym.gateway.model.GymClassView;
+import com.gym.gateway.model.Member;
+import com.gym.gateway.model.Payment;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.LongStream;
+
+// Datos de prueba con tamaños realistas: clases populares con cientos de inscritos y
+// miembros antiguos con años de pagos mensuales
+public final class SampleData {
+
+    private SampleData() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        // mismos ajustes de fechas que aplica Spring Boot al ObjectMapper de la aplicación
+        return Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static ObjectMapper cborMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(new CBORFactory())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static ObjectMapper smileMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+                .factory(new SmileFactory())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    public static Member member() {
+        Member member = new Member();
+        member.setId(1L);
+        member.setName("Ana López");
+        member.setEmail("ana.lopez@email.com");
+        member.setRegistrationDate(LocalDate.of(2020, 1, 15));
+        return member;
+    }
+
+    public static List<GymClass> classes(int count, int enrolledMembers) {
+        List<GymClass> classes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            GymClass gymClass = new GymClass();
+            gymClass.setId((long) i);
+            gymClass.setName("Clase " + i);
+            gymClass.setSchedule(LocalDateTime.of(2024, 1, 15, 10, 0).plusDays(i));
+            gymClass.setMaxCapacity(enrolledMembers + 10);
+            gymClass.setCurrentEnrollment(enrolledMembers);
+            gymClass.setCoachId((long) (i % 10));
+            gymClass.setEnrolledMembers(new ArrayList<>(LongStream.range(0, enrolledMembers).boxed().toList()));
+            gymClass.setReservedEquipment(new ArrayList<>(List.of(1L, 2L, 3L)));
+            gymClass.setEquipmentQuantities(new ArrayList<>(List.of(5, 5, 10)));
+            classes.add(gymClass);
+        }
+        return classes;
+    }
+
+    // Lo que queda de classes(count, n) tras decodificarlo como GymClassView
+    public static List<GymClassView> classViews(int count) {
+        List<GymClassView> views = new ArrayList<>(count);
+        for (GymClass gymClass : classes(count, 0)) {
+            GymClassView view = new GymClassView();
+            view.setId(gymClass.getId());
+            view.setName(gymClass.getName());
+            view.setSchedule(gymClass.getSchedule());
+            view.setMaxCapacity(gymClass.getMaxCapacity());
+            view.setCoachId(gymClass.getCoachId());
+            views.add(view);
+        }
+        return views;
+    }
+
+    public static List<Payment> payments(int count) {
+        List<Payment> payments = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 15, 10, 0);
+        for (int i = 0; i < count; i++) {
+            Payment payment = new Payment();
+            payment.setId((long) i);
+            payment.setMemberId(1L);
+            payment.setAmount(50.0);
+            payment.setPaymentDate(Date.from(start.plusMonths(i).toInstant(ZoneOffset.UTC)));
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    public static MemberSummaryDTO summary(int classCount, int paymentCount) {
+        MemberSummaryDTO summary = new MemberSummaryDTO();
+        Member member = member();
+        summary.setId(member.getId());
+        summary.setName(member.getName());
+        summary.setEmail(member.getEmail());
+        summary.setRegistrationDate(member.getRegistrationDate());
+
+        List<ClassSummaryDTO> classes = new ArrayList<>(classCount);
+        for (GymClass gymClass : classes(classCount, 0)) {
+            ClassSummaryDTO dto = new ClassSummaryDTO();
+            dto.setId(gymClass.getId());
+            dto.setName(gymClass.getName());
+            dto.setSchedule(gymClass.getSchedule());
+            dto.setMaxCapacity(gymClass.getMaxCapacity());
+            dto.setCoachId(gymClass.getCoachId());
+            dto.setEnrolled(true);
+            classes.add(dto);
+        }
+        summary.setEnrolledClasses(classes);
+
+        List<PaymentSummaryDTO> payments = new ArrayList<>(paymentCount);
+        for (Payment payment : payments(paymentCount)) {
+            PaymentSummaryDTO dto = new PaymentSummaryDTO();
+            dto.setId(payment.getId());
+            dto.setMemberId(payment.getMemberId());
+            dto.setAmount(payment.getAmount());
+            dto.setPaymentDate(payment.getPaymentDate().toInstant().atOffset(ZoneOffset.UTC));
+            payments.add(dto);
+        }
+        summary.setPayments(payments);
+        summary.setTotalPayments(paymentCount * 50.0);
+        summary.setTotalClasses(classCount);
+        return summary;
+    }
+}
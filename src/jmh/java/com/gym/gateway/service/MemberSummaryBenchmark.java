@@ -0,0 +1,81 @@
+package com.gym.gateway.service;
+
+import com.gym.gateway.benchmark.SampleData;
+import com.gym.gateway.dto.ClassSummaryDTO;
+import com.gym.gateway.dto.MemberSummaryDTO;
+import com.gym.gateway.dto.PaymentSummaryDTO;
+import com.gym.gateway.model.GymClassView;
+import com.gym.gateway.model.Member;
+import com.gym.gateway.model.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Construcción del MemberSummaryDTO a partir de las respuestas ya decodificadas de los tres microservicios
+// (conversión a DTOs y acumulación del total de pagos incluidas)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MemberSummaryBenchmark {
+
+    @Param({"5", "50"})
+    private int classCount;
+
+    @Param({"12", "120", "1200"})
+    private int paymentCount;
+
+    private MemberAggregationService service;
+    private Member member;
+    private List<GymClassView> classes;
+    private List<Payment> payments;
+
+    @Setup
+    public void setUp() {
+        service = new MemberAggregationService();
+        member = SampleData.member();
+        classes = SampleData.classViews(classCount);
+        payments = SampleData.payments(paymentCount);
+    }
+
+    @Benchmark
+    public MemberSummaryDTO buildMemberSummary() {
+        MemberSummaryDTO summary = new MemberSummaryDTO();
+        service.applyMember(summary, member);
+        service.applyClasses(summary, classes.stream().map(service::convertToClassSummaryDTO).toList(), SummaryField.ALL);
+        PaymentsSection paymentsSection = new PaymentsSection();
+        for (Payment payment : payments) {
+            paymentsSection.add(service.convertToPaymentSummaryDTO(payment));
+        }
+        service.applyPayments(summary, paymentsSection, SummaryField.ALL);
+        return summary;
+    }
+
+    @Benchmark
+    public void convertToClassSummaryDTO(Blackhole blackhole) {
+        for (GymClassView gymClass : classes) {
+            ClassSummaryDTO dto = service.convertToClassSummaryDTO(gymClass);
+            blackhole.consume(dto);
+        }
+    }
+
+    @Benchmark
+    public void convertToPaymentSummaryDTO(Blackhole blackhole) {
+        for (Payment payment : payments) {
+            PaymentSummaryDTO dto = service.convertToPaymentSummaryDTO(payment);
+            blackhole.consume(dto);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.gym.gateway.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import reactor.netty.http.client.HttpClient;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+// Carga a ritmo fijo (modelo abierto): la petición i sale en t0 + i/rate aunque las anteriores no hayan
+// respondido, y su latencia se mide desde ese instante previsto, no desde el envío real. Así un gateway
+// que se atasca no frena al generador y sus esperas aparecen en los percentiles (coordinated omission).
+// Los errores de transporte también se registran (hasta que fallan), y las descartadas por maxInFlight no
+// tienen latencia: se informan aparte como porcentaje para que un gateway que falla no mejore los percentiles.
+final class FixedRateLoad {
+
+    record Request(String uri, String bearerToken) {}
+
+    record Result(String scenario, int rate, long sent, long ok, long errors, long dropped,
+                  double seconds, Histogram latencyMicros, long allocatedBytes) {
+
+        double throughput() {
+            return ok / seconds;
+        }
+
+        double droppedPercent() {
+            return sent == 0 ? 0 : dropped * 100.0 / sent;
+        }
+
+        long allocatedBytesPerRequest() {
+            long completed = ok + errors;
+            return completed == 0 ? 0 : allocatedBytes / completed;
+        }
+    }
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final HttpClient client;
+    private final int maxInFlight;
+
+    FixedRateLoad(HttpClient client, int maxInFlight) {
+        this.client = client;
+        this.maxInFlight = maxInFlight;
+    }
+
+    Result run(String scenario, int rate, Duration duration, LongFunction<Request> requests) {
+        Recorder recorder = new Recorder(HIGHEST_LATENCY_MICROS, 3);
+        LongAdder ok = new LongAdder();
+        LongAdder errors = new LongAdder();
+        long dropped = 0;
+        AtomicInteger inFlight = new AtomicInteger();
+
+        long total = rate * duration.toSeconds();
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        CountDownLatch done = new CountDownLatch((int) total);
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+
+        for (long i = 0; i < total; i++) {
+            long intendedStart = start + i * periodNanos;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // por encima de maxInFlight el gateway ya no da abasto: se cuenta como descartada
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                dropped++;
+                done.countDown();
+                continue;
+            }
+            Request request = requests.apply(i);
+            HttpClient requestClient = request.bearerToken() == null
+                    ? client
+                    : client.headers(headers -> headers.set("Authorization", "Bearer " + request.bearerToken()));
+            requestClient.get()
+                    .uri(request.uri())
+                    .responseSingle((response, body) -> body.asByteArray()
+                            .defaultIfEmpty(new byte[0])
+                            .map(bytes -> response.status().code()))
+                    .subscribe(
+                            status -> {
+                                record(recorder, intendedStart);
+                                (status < 400 ? ok : errors).increment();
+                            },
+                            error -> {
+                                record(recorder, intendedStart);
+                                errors.increment();
+                                inFlight.decrementAndGet();
+                                done.countDown();
+                            },
+                            () -> {
+                                inFlight.decrementAndGet();
+                                done.countDown();
+                            });
+        }
+
+        try {
+            done.await(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return new Result(scenario, rate, total, ok.sum(), errors.sum(), dropped, seconds,
+                recorder.getIntervalHistogram(), allocatedBytes() - allocatedBefore);
+    }
+
+    private static void record(Recorder recorder, long intendedStart) {
+        recorder.recordValue(Math.min(HIGHEST_LATENCY_MICROS,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart)));
+    }
+
+    // Bytes asignados por los hilos vivos de la JVM: incluye gateway, stubs y este generador. Los event loops
+    // de Reactor Netty viven toda la prueba; lo que asignen hilos que terminan a mitad de escenario se pierde.
+    // (getTotalThreadAllocatedBytes solo existe desde Java 21 y el proyecto compila con 17)
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long allocated : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (allocated > 0) {
+                total += allocated;
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,156 @@
+package com.gym.gateway.loadtest;
+
+import com.gym.gateway.GatewayApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+
+/**
+ * Prueba de carga del gateway en una sola máquina y sin red: arranca member/class/payment/coach-microservice
+ * simulados y un emisor de JWT locales, levanta el gateway apuntando a ellos (sin Eureka ni Keycloak) y lanza
+ * cada escenario a ritmo fijo. Se configura con propiedades de sistema {@code loadtest.*}:
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java -Dloadtest.rate=500 -Dloadtest.duration=60s -Dloadtest.stub.latency=30ms
+ * </pre>
+ *
+ * Con el argumento {@code startup} mide el arranque del jar empaquetado en su lugar (ver {@link StartupProbe}).
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "startup".equals(args[0])) {
+            StartupProbe.run();
+            return;
+        }
+        int rate = Integer.getInteger("loadtest.rate", 200);
+        Duration duration = duration("loadtest.duration", "30s");
+        Duration warmup = duration("loadtest.warmup", "10s");
+        int members = Integer.getInteger("loadtest.members", 10000);
+        int users = Integer.getInteger("loadtest.users", 50);
+        int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 2000);
+        String summaryCache = System.getProperty("loadtest.summary-cache", "false");
+
+        StubBackend.Profile profile = new StubBackend.Profile(
+                duration("loadtest.stub.latency", "20ms"),
+                duration("loadtest.stub.jitter", "10ms"),
+                Double.parseDouble(System.getProperty("loadtest.stub.error-rate", "0.0")),
+                Integer.getInteger("loadtest.stub.classes", 5),
+                Integer.getInteger("loadtest.stub.enrolled-members", 200),
+                Integer.getInteger("loadtest.stub.payments", 24));
+
+        List<StubBackend> stubs = List.of(StubBackend.member(profile), StubBackend.classes(profile),
+                StubBackend.payments(profile), StubBackend.coaches(profile));
+        LocalJwtIssuer issuer = new LocalJwtIssuer();
+        ConfigurableApplicationContext gateway = null;
+        ConnectionProvider connections = ConnectionProvider.builder("loadtest")
+                .maxConnections(maxInFlight)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        try {
+            gateway = startGateway(stubs, issuer, summaryCache);
+            String gatewayUrl = "http://127.0.0.1:" + ((WebServerApplicationContext) gateway).getWebServer().getPort();
+            String classesStubUrl = stubs.get(1).baseUrl();
+
+            List<String> tokens = new ArrayList<>(users);
+            for (int i = 0; i < users; i++) {
+                tokens.add(issuer.token("loadtest-" + i, List.of("MEMBER"), Duration.ofHours(1)));
+            }
+
+            // El escenario directo contra el stub es la línea base: lo que cuestan generador y stub sin gateway
+            Map<String, LongFunction<FixedRateLoad.Request>> scenarios = new LinkedHashMap<>();
+            scenarios.put("stub-direct", i -> new FixedRateLoad.Request(
+                    classesStubUrl + "/api/classes/member/" + (i % members), null));
+            scenarios.put("aggregation-summary", i -> new FixedRateLoad.Request(
+                    gatewayUrl + "/api/aggregation/members/" + (i % members) + "/summary", tokens.get((int) (i % users))));
+            scenarios.put("proxied-classes", i -> new FixedRateLoad.Request(
+                    gatewayUrl + "/class-microservice/api/classes/member/" + (i % members), tokens.get((int) (i % users))));
+
+            FixedRateLoad load = new FixedRateLoad(HttpClient.create(connections).compress(false), maxInFlight);
+            List<FixedRateLoad.Result> results = new ArrayList<>();
+            for (Map.Entry<String, LongFunction<FixedRateLoad.Request>> scenario : scenarios.entrySet()) {
+                if (!warmup.isZero()) {
+                    load.run(scenario.getKey(), rate, warmup, scenario.getValue());
+                }
+                System.gc();
+                results.add(load.run(scenario.getKey(), rate, duration, scenario.getValue()));
+            }
+            report(System.out, profile, results);
+        } finally {
+            if (gateway != null) {
+                gateway.close();
+            }
+            connections.disposeLater().block(Duration.ofSeconds(10));
+            stubs.forEach(StubBackend::close);
+            issuer.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext startGateway(List<StubBackend> stubs, LocalJwtIssuer issuer,
+                                                               String summaryCache) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("eureka.client.enabled", false);
+        for (StubBackend stub : stubs) {
+            properties.put("spring.cloud.discovery.client.simple.instances." + stub.serviceId() + "[0].uri", stub.baseUrl());
+        }
+        properties.put("spring.security.oauth2.resourceserver.jwt.issuer-uri", LocalJwtIssuer.ISSUER);
+        properties.put("spring.security.oauth2.resourceserver.jwt.jwk-set-uri", issuer.jwkSetUri());
+        // se mide el gateway, no sus límites: sin rate limit y con la caché de resúmenes opcional
+        properties.put("gateway.rate-limit.aggregation.enabled", false);
+        properties.put("gateway.rate-limit.routes.enabled", false);
+        properties.put("aggregation.cache.enabled", summaryCache);
+        // root=WARN no tapa los DEBUG por paquete de application.properties: escribir cada petición en el log
+        // se come la CPU y acaba abriendo los circuit breakers de la agregación
+        properties.put("logging.level.root", "WARN");
+        for (String logger : List.of("org.springframework.security", "org.keycloak", "org.springframework.cloud.gateway",
+                "org.springframework.web.server.adapter.HttpWebHandlerAdapter")) {
+            properties.put("logging.level." + logger, "WARN");
+        }
+        // como argumentos de línea de comandos: SpringApplicationBuilder.properties() son propiedades por
+        // defecto y application.properties las taparía (JWK set de Keycloak, rate limit de las rutas...)
+        String[] args = properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(GatewayApplication.class).run(args);
+    }
+
+    private static void report(PrintStream out, StubBackend.Profile profile, List<FixedRateLoad.Result> results) {
+        out.printf("%nStubs: latencia %s + jitter %s, errores %.1f%%, %d clases x %d inscritos, %d pagos%n",
+                profile.latency(), profile.jitter(), profile.errorRate() * 100, profile.classes(),
+                profile.enrolledMembers(), profile.payments());
+        out.printf("%-20s %6s %9s %8s %8s %8s %9s %9s %9s %9s %9s %9s %11s%n",
+                "escenario", "rate", "req/s", "ok", "errores", "descart.", "% descart.", "p50 ms", "p90 ms", "p99 ms",
+                "p99.9 ms", "max ms", "bytes/req");
+        for (FixedRateLoad.Result result : results) {
+            Histogram latency = result.latencyMicros();
+            out.printf("%-20s %6d %9.1f %8d %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %11d%n",
+                    result.scenario(), result.rate(), result.throughput(), result.ok(), result.errors(), result.dropped(),
+                    result.droppedPercent(), millis(latency, 50), millis(latency, 90), millis(latency, 99), millis(latency, 99.9),
+                    latency.getMaxValue() / 1000.0, result.allocatedBytesPerRequest());
+        }
+        out.println("Los percentiles incluyen errores (ok + errores); las descartadas no tienen latencia y van aparte");
+        out.println("bytes/req incluye gateway, stubs y generador; restar stub-direct da el coste aproximado del gateway");
+    }
+
+    private static double millis(Histogram latency, double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
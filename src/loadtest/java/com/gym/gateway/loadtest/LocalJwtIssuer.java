@@ -0,0 +1,75 @@
+package com.gym.gateway.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+// Sustituye a Keycloak: firma tokens RS256 con una clave generada al arrancar y publica su JWK set.
+// Los roles van en el claim "roles", que es el que lee SecurityConfig
+final class LocalJwtIssuer implements AutoCloseable {
+
+    static final String ISSUER = "http://127.0.0.1/realms/loadtest";
+
+    private final RSAKey key;
+    private final DisposableServer server;
+
+    LocalJwtIssuer() {
+        try {
+            this.key = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("No se pudo generar la clave RSA", e);
+        }
+        String jwks = new JWKSet(key.toPublicJWK()).toString();
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.get("/jwks", (request, response) -> response
+                        .header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                        .sendString(Mono.just(jwks))))
+                .bindNow();
+    }
+
+    String jwkSetUri() {
+        return "http://127.0.0.1:" + server.port() + "/jwks";
+    }
+
+    String token(String userId, List<String> roles, Duration validity) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject(userId)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(validity)))
+                .claim("preferred_username", userId)
+                .claim("email", userId + "@gym.local")
+                .claim("roles", roles)
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        try {
+            jwt.sign(new RSASSASigner(key));
+        } catch (JOSEException e) {
+            throw new IllegalStateException("No se pudo firmar el token", e);
+        }
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+}
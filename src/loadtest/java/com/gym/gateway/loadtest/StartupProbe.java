@@ -0,0 +1,127 @@
+package com.gym.gateway.loadtest;
+
+import reactor.netty.http.client.HttpClient;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Mide el arranque del gateway empaquetado en un proceso aparte, contra los mismos stubs y JWT locales que la
+// prueba de carga: tiempo hasta que /actuator/health/readiness responde 200 y latencia de la primera y la
+// segunda petición al resumen. Permite comparar el jar normal con el build fast-startup y con/sin calentamiento.
+final class StartupProbe {
+
+    private static final Duration READY_TIMEOUT = Duration.ofMinutes(2);
+
+    private StartupProbe() {
+    }
+
+    static void run() throws IOException, InterruptedException {
+        String jar = System.getProperty("loadtest.startup.jar", "target/gateway-0.0.1-SNAPSHOT.jar");
+        String jvmArgs = System.getProperty("loadtest.startup.jvm-args", "");
+        boolean warmup = Boolean.parseBoolean(System.getProperty("loadtest.startup.warmup", "false"));
+        int runs = Integer.getInteger("loadtest.startup.runs", 3);
+
+        StubBackend.Profile profile = new StubBackend.Profile(Duration.ofMillis(20), Duration.ZERO, 0.0, 5, 200, 24);
+        List<StubBackend> stubs = List.of(StubBackend.member(profile), StubBackend.classes(profile),
+                StubBackend.payments(profile), StubBackend.coaches(profile));
+        LocalJwtIssuer issuer = new LocalJwtIssuer();
+        String token = issuer.token("startup-probe", List.of("MEMBER"), Duration.ofHours(1));
+        HttpClient client = HttpClient.create();
+        try {
+            System.out.printf("%nJar: %s, JVM: [%s], calentamiento: %s%n", jar, jvmArgs, warmup);
+            System.out.printf("%-6s %12s %16s %16s%n", "run", "ready ms", "1a petición ms", "2a petición ms");
+            for (int run = 1; run <= runs; run++) {
+                int port = freePort();
+                long start = System.nanoTime();
+                Process gateway = start(jar, jvmArgs, port, warmup, stubs, issuer);
+                try {
+                    String base = "http://127.0.0.1:" + port;
+                    waitUntilReady(client, base + "/actuator/health/readiness", gateway);
+                    long ready = System.nanoTime() - start;
+                    long first = timeRequest(client, base + "/api/aggregation/members/1/summary", token);
+                    long second = timeRequest(client, base + "/api/aggregation/members/2/summary", token);
+                    System.out.printf("%-6d %12d %16.1f %16.1f%n", run, TimeUnit.NANOSECONDS.toMillis(ready),
+                            first / 1e6, second / 1e6);
+                } finally {
+                    gateway.destroy();
+                    gateway.waitFor(30, TimeUnit.SECONDS);
+                }
+            }
+        } finally {
+            stubs.forEach(StubBackend::close);
+            issuer.close();
+        }
+    }
+
+    private static Process start(String jar, String jvmArgs, int port, boolean warmup,
+                                 List<StubBackend> stubs, LocalJwtIssuer issuer) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        if (!jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        command.add("-jar");
+        command.add(jar);
+        command.add("--server.port=" + port);
+        // Eureka sigue activo (con AOT sus beans quedan fijados en el build) pero sin registro ni consultas
+        command.add("--eureka.client.register-with-eureka=false");
+        command.add("--eureka.client.fetch-registry=false");
+        for (StubBackend stub : stubs) {
+            command.add("--spring.cloud.discovery.client.simple.instances." + stub.serviceId() + "[0].uri=" + stub.baseUrl());
+        }
+        command.add("--spring.security.oauth2.resourceserver.jwt.issuer-uri=" + LocalJwtIssuer.ISSUER);
+        command.add("--spring.security.oauth2.resourceserver.jwt.jwk-set-uri=" + issuer.jwkSetUri());
+        command.add("--aggregation.cache.enabled=false");
+        command.add("--gateway.warmup.enabled=" + warmup);
+        command.add("--logging.level.root=WARN");
+        return new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("target/startup-probe.log"))
+                .start();
+    }
+
+    private static void waitUntilReady(HttpClient client, String readinessUrl, Process gateway) throws InterruptedException {
+        long deadline = System.nanoTime() + READY_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!gateway.isAlive()) {
+                throw new IllegalStateException("El gateway terminó al arrancar, ver target/startup-probe.log");
+            }
+            Integer status = client.get().uri(readinessUrl)
+                    .responseSingle((response, body) -> body.then().thenReturn(response.status().code()))
+                    .timeout(Duration.ofSeconds(1))
+                    .onErrorReturn(0)
+                    .block();
+            if (status != null && status == 200) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("El gateway no estuvo ready en " + READY_TIMEOUT);
+    }
+
+    private static long timeRequest(HttpClient client, String url, String token) {
+        long start = System.nanoTime();
+        Integer status = client.headers(headers -> headers.set("Authorization", "Bearer " + token))
+                .get()
+                .uri(url)
+                .responseSingle((response, body) -> body.then().thenReturn(response.status().code()))
+                .block(Duration.ofSeconds(30));
+        long elapsed = System.nanoTime() - start;
+        if (status == null || status != 200) {
+            System.out.printf("  %s respondió %s%n", url, status);
+        }
+        return elapsed;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
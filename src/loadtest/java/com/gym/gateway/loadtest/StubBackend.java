@@ -0,0 +1,150 @@
+package com.gym.gateway.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.LongStream;
+
+// Microservicio simulado sobre Reactor Netty, en un puerto local libre. Responde con el mismo JSON que
+// el servicio real, tras una latencia base más un jitter aleatorio, y devuelve 500 con probabilidad errorRate.
+final class StubBackend implements AutoCloseable {
+
+    record Profile(Duration latency, Duration jitter, double errorRate, int classes, int enrolledMembers, int payments) {}
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String serviceId;
+    private final Profile profile;
+    private final DisposableServer server;
+
+    private StubBackend(String serviceId, Profile profile, HttpServer server) {
+        this.serviceId = serviceId;
+        this.profile = profile;
+        this.server = server.host("127.0.0.1").port(0).bindNow();
+    }
+
+    static StubBackend member(Profile profile) {
+        return new StubBackend("member-microservice", profile, HttpServer.create().route(routes -> routes
+                .get("/api/members/{id}", (request, response) -> respond(response, profile,
+                        () -> json(member(Long.parseLong(request.param("id"))))))));
+    }
+
+    static StubBackend classes(Profile profile) {
+        byte[] classes = json(classes(profile.classes(), profile.enrolledMembers()));
+        return new StubBackend("class-microservice", profile, HttpServer.create().route(routes -> routes
+                .get("/api/classes/member/{id}", (request, response) -> respond(response, profile, () -> classes))));
+    }
+
+    static StubBackend payments(Profile profile) {
+        return new StubBackend("payment-microservice", profile, HttpServer.create().route(routes -> routes
+                .get("/api/payment/member/{id}", (request, response) -> respond(response, profile,
+                        () -> json(payments(Long.parseLong(request.param("id")), profile.payments()))))));
+    }
+
+    static StubBackend coaches(Profile profile) {
+        return new StubBackend("coach-microservice", profile, HttpServer.create().route(routes -> routes
+                .get("/api/coaches/{id}", (request, response) -> respond(response, profile,
+                        () -> json(coach(Long.parseLong(request.param("id"))))))));
+    }
+
+    String serviceId() {
+        return serviceId;
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.port();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private static Mono<Void> respond(HttpServerResponse response, Profile profile, java.util.function.Supplier<byte[]> body) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long jitterNanos = profile.jitter().isZero() ? 0 : random.nextLong(profile.jitter().toNanos());
+        Duration delay = profile.latency().plusNanos(jitterNanos);
+        boolean fail = random.nextDouble() < profile.errorRate();
+        return Mono.delay(delay).then(fail
+                ? response.status(HttpResponseStatus.INTERNAL_SERVER_ERROR).send().then()
+                : response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                        .sendByteArray(Mono.fromSupplier(body))
+                        .then());
+    }
+
+    private static Map<String, Object> member(long id) {
+        Map<String, Object> member = new LinkedHashMap<>();
+        member.put("id", id);
+        member.put("name", "Miembro " + id);
+        member.put("email", "miembro" + id + "@gym.local");
+        member.put("registrationDate", LocalDate.of(2020, 1, 15).toString());
+        return member;
+    }
+
+    private static List<Map<String, Object>> classes(int count, int enrolledMembers) {
+        List<Map<String, Object>> classes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> gymClass = new LinkedHashMap<>();
+            gymClass.put("id", (long) i);
+            gymClass.put("name", "Clase " + i);
+            gymClass.put("schedule", LocalDateTime.of(2024, 1, 15, 10, 0).plusDays(i).format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            gymClass.put("maxCapacity", enrolledMembers + 10);
+            gymClass.put("currentEnrollment", enrolledMembers);
+            gymClass.put("coachId", (long) (i % 10));
+            gymClass.put("enrolledMembers", LongStream.range(0, enrolledMembers).boxed().toList());
+            gymClass.put("reservedEquipment", List.of(1L, 2L, 3L));
+            gymClass.put("equipmentQuantities", List.of(5, 5, 10));
+            classes.add(gymClass);
+        }
+        return classes;
+    }
+
+    private static List<Map<String, Object>> payments(long memberId, int count) {
+        List<Map<String, Object>> payments = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2020, 1, 15, 10, 0);
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> payment = new LinkedHashMap<>();
+            payment.put("id", (long) i);
+            payment.put("memberId", memberId);
+            payment.put("amount", 50.0);
+            payment.put("paymentDate", start.plusMonths(i).atOffset(ZoneOffset.UTC)
+                    .format(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX")));
+            payments.add(payment);
+        }
+        return payments;
+    }
+
+    private static Map<String, Object> coach(long id) {
+        Map<String, Object> coach = new LinkedHashMap<>();
+        coach.put("id", id);
+        coach.put("name", "Coach " + id);
+        coach.put("email", "coach" + id + "@gym.local");
+        coach.put("specialty", "Funcional");
+        return coach;
+    }
+
+    private static byte[] json(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value).getBytes(StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.gym.gateway.client;
+
+import com.gym.gateway.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Límite adaptativo de llamadas en vuelo por microservicio (AIMD):
+//  - cada llamada que responde cerca de la latencia mínima observada sube el límite en 1/límite
+//    (+1 por cada "ventana" de llamadas), mientras haya demanda para usarlo;
+//  - una llamada lenta (más de latency-tolerance veces la mínima), un timeout, un error de conexión,
+//    un 429 o un 503 lo multiplican por backoff-ratio, como mucho una vez por ventana.
+// Por encima del límite se espera como máximo max-wait en una cola de max-queue; el resto falla
+// en el momento con ServiceOverloadedException (503 con Retry-After).
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final Duration maxWait;
+    private final int maxQueue;
+    private final Duration retryAfter;
+
+    private final Map<String, ServiceLimit> limits = new ConcurrentHashMap<>();
+
+    public AdaptiveConcurrencyLimiter(MeterRegistry meterRegistry,
+                                      @Value("${aggregation.limiter.enabled:true}") boolean enabled,
+                                      @Value("${aggregation.limiter.initial-limit:20}") int initialLimit,
+                                      @Value("${aggregation.limiter.min-limit:4}") int minLimit,
+                                      @Value("${aggregation.limiter.max-limit:200}") int maxLimit,
+                                      @Value("${aggregation.limiter.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${aggregation.limiter.latency-tolerance:2.0}") double latencyTolerance,
+                                      @Value("${aggregation.limiter.max-wait:50ms}") Duration maxWait,
+                                      @Value("${aggregation.limiter.max-queue:100}") int maxQueue,
+                                      @Value("${aggregation.limiter.retry-after:1s}") Duration retryAfter) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.maxWait = maxWait;
+        this.maxQueue = maxQueue;
+        this.retryAfter = retryAfter;
+    }
+
+    public <T> Mono<T> limit(String serviceId, Supplier<Mono<T>> call) {
+        if (!enabled) {
+            return Mono.defer(call);
+        }
+        ServiceLimit limit = limitFor(serviceId);
+        return limit.acquire().flatMap(permit -> {
+            long start = System.nanoTime();
+            return call.get()
+                    .doOnSuccess(value -> limit.onSample(start, false))
+                    .doOnError(e -> limit.onSample(start, isDrop(e)))
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    // Respuestas en streaming: su duración depende del tamaño de la respuesta, así que solo cuentan los errores
+    public <T> Flux<T> limitStream(String serviceId, Supplier<Flux<T>> call) {
+        if (!enabled) {
+            return Flux.defer(call);
+        }
+        ServiceLimit limit = limitFor(serviceId);
+        return limit.acquire().flatMapMany(permit -> {
+            long start = System.nanoTime();
+            return call.get()
+                    .doOnError(e -> limit.onSample(start, isDrop(e)))
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    private ServiceLimit limitFor(String serviceId) {
+        return limits.computeIfAbsent(serviceId, ServiceLimit::new);
+    }
+
+    private static boolean isDrop(Throwable error) {
+        if (error instanceof WebClientResponseException responseError) {
+            int status = responseError.getStatusCode().value();
+            return status == 429 || status == 503;
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    private final class ServiceLimit {
+
+        private final String serviceId;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger samples = new AtomicInteger();
+        private final Counter rejected;
+
+        private volatile double limit = initialLimit;
+        private volatile long minRttNanos = Long.MAX_VALUE;
+        private volatile long lastDecreaseNanos = System.nanoTime();
+
+        private ServiceLimit(String serviceId) {
+            this.serviceId = serviceId;
+            Gauge.builder("gateway.aggregation.limit", this, serviceLimit -> serviceLimit.limit)
+                    .tag("service", serviceId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.aggregation.inflight", inFlight, AtomicInteger::get)
+                    .tag("service", serviceId)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("gateway.aggregation.rejected")
+                    .tag("service", serviceId)
+                    .register(meterRegistry);
+        }
+
+        Mono<Permit> acquire() {
+            if (tryAcquire()) {
+                return Mono.just(new Permit(this));
+            }
+            if (queued.incrementAndGet() > maxQueue) {
+                queued.decrementAndGet();
+                return reject();
+            }
+            Waiter waiter = new Waiter(new Permit(this));
+            waiters.add(waiter);
+            // por si se liberó un permiso entre el intento y el encolado
+            drain();
+            return waiter.sink.asMono()
+                    .timeout(maxWait, Mono.defer(() -> abandon(waiter) ? reject() : waiter.sink.asMono()))
+                    .doOnCancel(() -> {
+                        // si ya se le había concedido el permiso hay que devolverlo
+                        if (!abandon(waiter)) {
+                            waiter.permit.release();
+                        }
+                    });
+        }
+
+        void release() {
+            inFlight.decrementAndGet();
+            drain();
+        }
+
+        void onSample(long startNanos, boolean drop) {
+            long now = System.nanoTime();
+            long rtt = now - startNanos;
+            if (samples.incrementAndGet() % MIN_RTT_RESET_SAMPLES == 0) {
+                // se olvida la mínima de vez en cuando para seguir cambios de capacidad del servicio
+                minRttNanos = rtt;
+            } else if (!drop && rtt < minRttNanos) {
+                minRttNanos = rtt;
+            }
+
+            if (drop || rtt > minRttNanos * latencyTolerance) {
+                // una sola reducción por ventana: las llamadas que empezaron antes de la última ya la provocaron
+                if (startNanos - lastDecreaseNanos > 0) {
+                    lastDecreaseNanos = now;
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                }
+            } else if (inFlight.get() * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1.0 / limit);
+            }
+        }
+
+        private boolean abandon(Waiter waiter) {
+            if (!waiter.cancel()) {
+                return false;
+            }
+            if (waiters.remove(waiter)) {
+                queued.decrementAndGet();
+            }
+            return true;
+        }
+
+        private boolean tryAcquire() {
+            int current;
+            do {
+                current = inFlight.get();
+                if (current >= (int) limit) {
+                    return false;
+                }
+            } while (!inFlight.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        private void drain() {
+            while (!waiters.isEmpty() && tryAcquire()) {
+                Waiter waiter = waiters.poll();
+                if (waiter == null) {
+                    inFlight.decrementAndGet();
+                    return;
+                }
+                queued.decrementAndGet();
+                if (waiter.grant()) {
+                    waiter.sink.tryEmitValue(waiter.permit);
+                } else {
+                    inFlight.decrementAndGet();
+                }
+            }
+        }
+
+        private <T> Mono<T> reject() {
+            rejected.increment();
+            return Mono.error(new ServiceOverloadedException(serviceId, retryAfter));
+        }
+    }
+
+    // Un permiso concedido. Se devuelve una sola vez aunque lo liberen tanto la cancelación del que esperaba
+    // en la cola como el doFinally de la llamada: una segunda devolución dejaría inFlight por debajo de lo real
+    private static final class Permit {
+
+        private final ServiceLimit owner;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(ServiceLimit owner) {
+            this.owner = owner;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                owner.release();
+            }
+        }
+    }
+
+    // Un hueco en la cola: lo resuelve quien llegue antes, drain() con un permiso o el timeout/cancelación
+    private static final class Waiter {
+
+        private final Sinks.One<Permit> sink = Sinks.one();
+        private final AtomicBoolean settled = new AtomicBoolean();
+        private final Permit permit;
+
+        private Waiter(Permit permit) {
+            this.permit = permit;
+        }
+
+        boolean grant() {
+            return settled.compareAndSet(false, true);
+        }
+
+        boolean cancel() {
+            return settled.compareAndSet(false, true);
+        }
+    }
+}
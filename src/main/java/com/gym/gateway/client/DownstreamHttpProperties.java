@@ -0,0 +1,37 @@
+package com.gym.gateway.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "aggregation.http")
+public class DownstreamHttpProperties {
+
+    // Un pool por microservicio (member-microservice, class-microservice, payment-microservice...)
+    private Map<String, Pool> services = new HashMap<>();
+
+    public Pool forService(String serviceId) {
+        return services.getOrDefault(serviceId, new Pool());
+    }
+
+    @Data
+    public static class Pool {
+        private int maxConnections = 50;
+        private int pendingAcquireMaxCount = 200;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        private Duration responseTimeout = Duration.ofSeconds(5);
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        private Duration evictInBackground = Duration.ofSeconds(30);
+        // Pide Smile con JSON como alternativa (Accept con q); un servicio sin Smile sigue respondiendo JSON
+        private boolean acceptSmile = true;
+    }
+}
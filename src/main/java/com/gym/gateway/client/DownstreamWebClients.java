@@ -0,0 +1,80 @@
+package com.gym.gateway.client;
+
+import com.gym.gateway.config.BinaryCodecsConfig;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// WebClient de la agregación con un pool de conexiones propio por microservicio, de forma que un
+// backend lento no agote las conexiones de los demás. Con metrics(true) Reactor Netty publica
+// reactor.netty.connection.provider.{active,idle,pending,total}.connections con tag name=aggregation-<servicio>.
+@Component
+public class DownstreamWebClients implements DisposableBean {
+
+    private static final String SMILE_OR_JSON = BinaryCodecsConfig.APPLICATION_SMILE_VALUE + ", "
+            + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+    private static final String READ_TIMEOUT_HANDLER = "aggregationReadTimeout";
+
+    private final DownstreamHttpProperties properties;
+    private final WebClient.Builder webClientBuilder;
+
+    private final Map<String, WebClient> clients = new ConcurrentHashMap<>();
+    private final Map<String, ConnectionProvider> connectionProviders = new ConcurrentHashMap<>();
+
+    public DownstreamWebClients(DownstreamHttpProperties properties, WebClient.Builder webClientBuilder) {
+        this.properties = properties;
+        this.webClientBuilder = webClientBuilder;
+    }
+
+    public WebClient forService(String serviceId) {
+        return clients.computeIfAbsent(serviceId, this::createWebClient);
+    }
+
+    private WebClient createWebClient(String serviceId) {
+        DownstreamHttpProperties.Pool pool = properties.forService(serviceId);
+
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("aggregation-" + serviceId)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .evictInBackground(pool.getEvictInBackground())
+                .metrics(true)
+                .build();
+        connectionProviders.put(serviceId, connectionProvider);
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .responseTimeout(pool.getResponseTimeout())
+                // el ReadTimeoutHandler vive solo mientras dura la petición: si se quedara en la conexión,
+                // cerraría las conexiones inactivas del pool antes de maxIdleTime
+                .doOnRequest((request, connection) -> connection.addHandlerLast(READ_TIMEOUT_HANDLER,
+                        new ReadTimeoutHandler(pool.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)))
+                .doAfterResponseSuccess((response, connection) -> connection.removeHandler(READ_TIMEOUT_HANDLER));
+
+        WebClient.Builder builder = webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient));
+        if (pool.isAcceptSmile()) {
+            // el decoder se elige por el Content-Type de la respuesta, sea Smile o JSON
+            builder.defaultHeader(HttpHeaders.ACCEPT, SMILE_OR_JSON);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public void destroy() {
+        connectionProviders.values().forEach(ConnectionProvider::dispose);
+    }
+}
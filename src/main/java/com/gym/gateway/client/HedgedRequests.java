@@ -0,0 +1,149 @@
+package com.gym.gateway.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Signal;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+// Peticiones de cobertura (hedging): si la llamada principal no ha respondido tras el retardo
+// configurado (o el p95 observado del servicio), se lanza la misma llamada contra otra instancia y
+// gana la primera respuesta. Un error de la principal se propaga sin esperar a la cobertura.
+// Cada petición aporta max-ratio tokens y cada cobertura consume uno, así que la carga extra nunca
+// supera ese ratio (como mucho el doble con max-ratio=1).
+@Component
+public class HedgedRequests {
+
+    private static final int LATENCY_WINDOW = 256;
+    private static final long TOKEN_SCALE = 1000;
+    private static final long MAX_TOKENS = 10 * TOKEN_SCALE;
+
+    private final ServiceInstanceResolver serviceInstanceResolver;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Duration fixedDelay;
+    private final Duration minDelay;
+    private final long tokensPerRequest;
+
+    private final Map<String, ServiceHedging> services = new ConcurrentHashMap<>();
+
+    public HedgedRequests(ServiceInstanceResolver serviceInstanceResolver,
+                          MeterRegistry meterRegistry,
+                          @Value("${aggregation.hedging.enabled:true}") boolean enabled,
+                          @Value("${aggregation.hedging.delay:0ms}") Duration fixedDelay,
+                          @Value("${aggregation.hedging.min-delay:25ms}") Duration minDelay,
+                          @Value("${aggregation.hedging.max-ratio:0.1}") double maxRatio) {
+        this.serviceInstanceResolver = serviceInstanceResolver;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.fixedDelay = fixedDelay;
+        this.minDelay = minDelay;
+        this.tokensPerRequest = Math.round(Math.max(0, Math.min(1, maxRatio)) * TOKEN_SCALE);
+    }
+
+    public <T> Mono<T> execute(String serviceId, Function<ServiceInstance, Mono<T>> call) {
+        return serviceInstanceResolver.resolve(serviceId).flatMap(primaryInstance -> {
+            ServiceHedging hedging = services.computeIfAbsent(serviceId, ServiceHedging::new);
+            long start = System.nanoTime();
+            Mono<T> primary = call.apply(primaryInstance)
+                    .doOnSuccess(value -> hedging.recordLatency(System.nanoTime() - start));
+            Duration delay = enabled ? hedging.delay() : null;
+            if (delay == null) {
+                return primary;
+            }
+
+            hedging.depositToken();
+            // primero la otra instancia: con una sola instancia sana no se gasta presupuesto
+            Mono<Signal<T>> hedge = Mono.delay(delay)
+                    .flatMap(tick -> serviceInstanceResolver.resolveOther(serviceId, primaryInstance))
+                    .filter(instance -> hedging.tryAcquireToken())
+                    .flatMap(instance -> {
+                        hedging.sent.increment();
+                        return call.apply(instance).materialize();
+                    })
+                    // si la cobertura falla se sigue esperando a la principal
+                    .filter(signal -> signal.hasValue())
+                    .doOnNext(signal -> hedging.won.increment());
+
+            return Flux.merge(primary.materialize(), hedge)
+                    .next()
+                    .dematerialize();
+        });
+    }
+
+    private final class ServiceHedging {
+
+        private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_WINDOW);
+        private final AtomicInteger samples = new AtomicInteger();
+        private final AtomicLong tokens = new AtomicLong();
+        private volatile long p95Nanos;
+
+        private final Counter sent;
+        private final Counter won;
+
+        private ServiceHedging(String serviceId) {
+            this.sent = Counter.builder("gateway.aggregation.hedge")
+                    .tag("service", serviceId)
+                    .tag("result", "sent")
+                    .register(meterRegistry);
+            this.won = Counter.builder("gateway.aggregation.hedge")
+                    .tag("service", serviceId)
+                    .tag("result", "won")
+                    .register(meterRegistry);
+        }
+
+        // null = sin suficientes muestras: no se cubre nada (ni se programa el temporizador)
+        // hasta conocer la latencia del servicio
+        Duration delay() {
+            if (!fixedDelay.isZero()) {
+                return fixedDelay;
+            }
+            long p95 = p95Nanos;
+            if (p95 == 0) {
+                return null;
+            }
+            return Duration.ofNanos(Math.max(p95, minDelay.toNanos()));
+        }
+
+        void recordLatency(long nanos) {
+            int sample = samples.getAndIncrement();
+            latencies.set(Math.floorMod(sample, LATENCY_WINDOW), nanos);
+            if (sample >= LATENCY_WINDOW / 4 && sample % 32 == 0) {
+                int size = Math.min(sample + 1, LATENCY_WINDOW);
+                long[] window = new long[size];
+                for (int i = 0; i < size; i++) {
+                    window[i] = latencies.get(i);
+                }
+                Arrays.sort(window);
+                p95Nanos = window[(int) Math.ceil(size * 0.95) - 1];
+            }
+        }
+
+        void depositToken() {
+            tokens.updateAndGet(current -> Math.min(MAX_TOKENS, current + tokensPerRequest));
+        }
+
+        boolean tryAcquireToken() {
+            long current;
+            do {
+                current = tokens.get();
+                if (current < TOKEN_SCALE) {
+                    return false;
+                }
+            } while (!tokens.compareAndSet(current, current - TOKEN_SCALE));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.gym.gateway.client;
+
+import com.gym.gateway.exception.ServiceInstanceNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.ReactiveDiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Resuelve instancias de los microservicios sin pasar por Eureka en cada llamada: mantiene la lista
+// de instancias por servicio, la refresca en segundo plano y reparte las llamadas en round-robin
+// entre las instancias que no han fallado recientemente.
+@Component
+public class ServiceInstanceResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(ServiceInstanceResolver.class);
+
+    private final ReactiveDiscoveryClient discoveryClient;
+    private final long refreshIntervalNanos;
+    private final long failureCooldownNanos;
+
+    private final Map<String, CachedInstances> instancesByService = new ConcurrentHashMap<>();
+    private final Map<String, Mono<List<ServiceInstance>>> refreshesInFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> cursors = new ConcurrentHashMap<>();
+    private final Map<String, Long> quarantinedUntil = new ConcurrentHashMap<>();
+
+    public ServiceInstanceResolver(ReactiveDiscoveryClient discoveryClient,
+                                   @Value("${aggregation.discovery.refresh-interval:15s}") Duration refreshInterval,
+                                   @Value("${aggregation.discovery.failure-cooldown:10s}") Duration failureCooldown) {
+        this.discoveryClient = discoveryClient;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.failureCooldownNanos = failureCooldown.toNanos();
+    }
+
+    public Mono<ServiceInstance> resolve(String serviceId) {
+        return instances(serviceId).flatMap(instances -> {
+            List<ServiceInstance> healthy = healthy(instances);
+            if (healthy.isEmpty()) {
+                log.error("❌ Service {} no encontrado en Eureka", serviceId);
+                return Mono.error(new ServiceInstanceNotFoundException(serviceId));
+            }
+            int next = cursors.computeIfAbsent(serviceId, id -> new AtomicInteger()).getAndIncrement();
+            return Mono.just(healthy.get(Math.floorMod(next, healthy.size())));
+        });
+    }
+
+    // Todas las instancias conocidas del servicio (también las que están en cuarentena), p. ej. para calentarlas
+    public Mono<List<ServiceInstance>> resolveAll(String serviceId) {
+        return instances(serviceId).flatMap(instances -> instances.isEmpty()
+                ? Mono.error(new ServiceInstanceNotFoundException(serviceId))
+                : Mono.just(instances));
+    }
+
+    // Instancia distinta de la indicada (para peticiones de cobertura); vacío si no hay otra sana
+    public Mono<ServiceInstance> resolveOther(String serviceId, ServiceInstance exclude) {
+        return instances(serviceId).flatMap(instances -> {
+            List<ServiceInstance> others = healthy(instances).stream()
+                    .filter(instance -> !instanceKey(instance).equals(instanceKey(exclude)))
+                    .toList();
+            if (others.isEmpty()) {
+                return Mono.empty();
+            }
+            int next = cursors.computeIfAbsent(serviceId, id -> new AtomicInteger()).getAndIncrement();
+            return Mono.just(others.get(Math.floorMod(next, others.size())));
+        });
+    }
+
+    // Solo los fallos de conexión y los 5xx sacan a la instancia de la rotación; un 404 es una respuesta válida
+    public void reportFailure(ServiceInstance instance, Throwable error) {
+        boolean instanceFailure = error instanceof WebClientRequestException
+                || (error instanceof WebClientResponseException responseError
+                        && responseError.getStatusCode().is5xxServerError());
+        if (instanceFailure) {
+            log.warn("⚠️ Instancia {} de {} fuera de rotación: {}", instanceKey(instance), instance.getServiceId(), error.getMessage());
+            quarantinedUntil.put(instanceKey(instance), System.nanoTime() + failureCooldownNanos);
+        }
+    }
+
+    // Eureka publica un HeartbeatEvent cada vez que refresca su registro local
+    @EventListener(HeartbeatEvent.class)
+    public void onDiscoveryHeartbeat() {
+        instancesByService.replaceAll((serviceId, cached) -> cached.expired());
+    }
+
+    private Mono<List<ServiceInstance>> instances(String serviceId) {
+        CachedInstances cached = instancesByService.get(serviceId);
+        if (cached == null || cached.instances().isEmpty()) {
+            return refresh(serviceId);
+        }
+        if (cached.stale() || System.nanoTime() - cached.fetchedAt() > refreshIntervalNanos) {
+            // se sirve la lista actual mientras se refresca
+            refresh(serviceId).subscribe(list -> { }, e -> log.warn("Error refrescando instancias de {}: {}", serviceId, e.getMessage()));
+        }
+        return Mono.just(cached.instances());
+    }
+
+    private Mono<List<ServiceInstance>> refresh(String serviceId) {
+        return refreshesInFlight.computeIfAbsent(serviceId, id -> discoveryClient.getInstances(id)
+                .collectList()
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnNext(list -> instancesByService.put(id, new CachedInstances(List.copyOf(list), System.nanoTime(), false)))
+                .doFinally(signal -> refreshesInFlight.remove(id))
+                .cache());
+    }
+
+    private List<ServiceInstance> healthy(List<ServiceInstance> instances) {
+        if (quarantinedUntil.isEmpty()) {
+            return instances;
+        }
+        long now = System.nanoTime();
+        List<ServiceInstance> healthy = instances.stream()
+                .filter(instance -> {
+                    Long until = quarantinedUntil.get(instanceKey(instance));
+                    if (until != null && until - now <= 0) {
+                        quarantinedUntil.remove(instanceKey(instance), until);
+                        return true;
+                    }
+                    return until == null;
+                })
+                .toList();
+        // si todas están en cuarentena se prueba con todas antes que fallar
+        return healthy.isEmpty() ? instances : healthy;
+    }
+
+    private static String instanceKey(ServiceInstance instance) {
+        return instance.getServiceId() + "@" + instance.getHost() + ":" + instance.getPort();
+    }
+
+    private record CachedInstances(List<ServiceInstance> instances, long fetchedAt, boolean stale) {
+        CachedInstances expired() {
+            return new CachedInstances(instances, fetchedAt, true);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.gym.gateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+
+// Codecs CBOR y Smile para el servidor (respuestas de la agregación) y para los WebClient (legs hacia los
+// microservicios). Los mappers salen del Jackson2ObjectMapperBuilder de Boot, con los mismos módulos y opciones
+// que el JSON (JavaTimeModule, fechas como texto), así que los @JsonFormat de modelos y DTOs dan el mismo valor
+// en los tres formatos. CBOR no admite decodificar ni codificar en streaming: solo para respuestas únicas.
+// Los tipos MIME se pasan explícitamente: con solo el ObjectMapper los codecs declaran los de JSON y el
+// encoder CBOR (registrado antes que el de JSON) acabaría escribiendo las respuestas application/json.
+@Configuration
+public class BinaryCodecsConfig {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+    private static final MimeType[] SMILE_MIME_TYPES = {APPLICATION_SMILE, MimeType.valueOf("application/*+x-jackson-smile")};
+
+    @Bean
+    public CodecCustomizer binaryCodecsCustomizer(ObjectProvider<Jackson2ObjectMapperBuilder> builders) {
+        ObjectMapper cborMapper = builders.getObject().factory(new CBORFactory()).build();
+        ObjectMapper smileMapper = builders.getObject().factory(new SmileFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_MIME_TYPES));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MIME_TYPES));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2CborEncoder(cborMapper, MediaType.APPLICATION_CBOR));
+            configurer.customCodecs().registerWithDefaultConfig(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+        };
+    }
+}
@@ -0,0 +1,52 @@
+package com.gym.gateway.config;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+// Compresión gzip solo para las respuestas del propio gateway bajo gateway.compression.path-prefix
+// (la agregación). server.compression es global en Reactor Netty y alcanzaría también a las rutas, que solo
+// reenvían respuestas: el gateway gastaría CPU en cuerpos que el microservicio puede comprimir él mismo.
+// Las mismas condiciones que server.compression: tipo MIME, tamaño mínimo y Accept-Encoding del cliente.
+@Configuration
+public class CompressionConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> aggregationCompression(
+            @Value("${gateway.compression.enabled:true}") boolean enabled,
+            @Value("${gateway.compression.path-prefix:/api/aggregation/}") String pathPrefix,
+            @Value("${gateway.compression.mime-types:application/json,application/x-ndjson}") List<String> mimeTypes,
+            @Value("${gateway.compression.min-response-size:1KB}") DataSize minResponseSize) {
+        List<MimeType> compressible = mimeTypes.stream().map(MimeType::valueOf).toList();
+        return factory -> {
+            if (!enabled) {
+                return;
+            }
+            factory.addServerCustomizers(server -> server
+                    .compress((int) minResponseSize.toBytes())
+                    .compress((request, response) -> request.fullPath().startsWith(pathPrefix)
+                            && isCompressible(response.responseHeaders().get(HttpHeaderNames.CONTENT_TYPE), compressible)));
+        };
+    }
+
+    private static boolean isCompressible(String contentType, List<MimeType> compressible) {
+        if (!StringUtils.hasLength(contentType)) {
+            return false;
+        }
+        try {
+            MimeType mimeType = MimeType.valueOf(contentType);
+            return compressible.stream().anyMatch(candidate -> candidate.isCompatibleWith(mimeType));
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.gym.gateway.config;
+
+import com.gym.gateway.client.DownstreamHttpProperties;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.timelimiter.TimeLimiterConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.ReactiveResilience4JCircuitBreakerFactory;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+@Configuration
+public class ResilienceConfig {
+
+    // Un circuit breaker por microservicio (el id es el serviceId). Solo cuentan como fallo los errores
+    // de conexión, los 5xx y los timeouts: un 404 de member-microservice es una respuesta válida.
+    // El time limiter se alinea con el response-timeout del pool del servicio más un margen para la cobertura.
+    @Bean
+    public Customizer<ReactiveResilience4JCircuitBreakerFactory> aggregationCircuitBreakers(
+            DownstreamHttpProperties httpProperties,
+            @Value("${aggregation.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${aggregation.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${aggregation.circuit-breaker.slow-call-duration-threshold:2s}") Duration slowCallDurationThreshold,
+            @Value("${aggregation.circuit-breaker.sliding-window-size:20}") int slidingWindowSize,
+            @Value("${aggregation.circuit-breaker.minimum-number-of-calls:10}") int minimumNumberOfCalls,
+            @Value("${aggregation.circuit-breaker.wait-duration-in-open-state:10s}") Duration waitDurationInOpenState,
+            @Value("${aggregation.circuit-breaker.timeout-margin:1s}") Duration timeoutMargin) {
+
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slowCallDurationThreshold(slowCallDurationThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumNumberOfCalls)
+                .waitDurationInOpenState(waitDurationInOpenState)
+                .permittedNumberOfCallsInHalfOpenState(3)
+                .recordException(ResilienceConfig::isServiceFailure)
+                .build();
+
+        return factory -> factory.configureDefault(serviceId -> new Resilience4JConfigBuilder(serviceId)
+                .circuitBreakerConfig(circuitBreakerConfig)
+                .timeLimiterConfig(TimeLimiterConfig.custom()
+                        .timeoutDuration(httpProperties.forService(serviceId).getResponseTimeout().plus(timeoutMargin))
+                        .build())
+                .build());
+    }
+
+    private static boolean isServiceFailure(Throwable error) {
+        return error instanceof WebClientRequestException
+                || error instanceof TimeoutException
+                || (error instanceof WebClientResponseException responseError
+                        && responseError.getStatusCode().is5xxServerError());
+    }
+}
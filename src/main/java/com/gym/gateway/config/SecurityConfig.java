@@ -1,13 +1,21 @@
 package com.gym.gateway.config;
 
+import com.gym.gateway.security.CachingReactiveJwtDecoder;
+import com.gym.gateway.security.JwkSetSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
 import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.oauth2.server.resource.authentication.ReactiveJwtAuthenticationConverter;
 import org.springframework.security.core.GrantedAuthority;
 import reactor.core.publisher.Flux;
+import java.time.Duration;
 import java.util.Collection;
 
 import org.springframework.security.web.server.SecurityWebFilterChain;
@@ -26,6 +34,9 @@ public class SecurityConfig {
                         .pathMatchers("/api/test").permitAll()
                         .pathMatchers("/api/routes").permitAll()
                         .pathMatchers("/api/aggregation/members/*/summary").authenticated()
+                        .pathMatchers("/api/aggregation/members/*/summary/stream").authenticated()
+                        .pathMatchers("/api/aggregation/members/summary").authenticated()
+                        .pathMatchers("/api/aggregation/members/export").hasRole("ADMIN")
                         .pathMatchers("/api/**", "/*/api/**",
                                 "/class-microservice/api/**", "/member-microservice/api/**",
                                 "/coach-microservice/api/**", "/equipment-microservice/api/**",
@@ -38,6 +49,23 @@ public class SecurityConfig {
         return http.build();
     }
 
+    @Bean
+    public ReactiveJwtDecoder jwtDecoder(JwkSetSource jwkSetSource,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+                                         @Value("${gateway.jwt.cache.max-size:100000}") long maxSize,
+                                         @Value("${gateway.jwt.cache.max-ttl:10m}") Duration maxTtl,
+                                         @Value("${gateway.jwt.cache.expiry-skew:30s}") Duration expirySkew) {
+        // Same validation as the Boot default (signature against the JWK set + issuer + timestamps),
+        // with already verified tokens served from a cache that is cleared when the JWK set rotates
+        NimbusReactiveJwtDecoder nimbusDecoder = NimbusReactiveJwtDecoder.withJwkSource(jwkSetSource::select).build();
+        nimbusDecoder.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+
+        CachingReactiveJwtDecoder decoder = new CachingReactiveJwtDecoder(nimbusDecoder, maxSize, maxTtl, expirySkew, meterRegistry);
+        jwkSetSource.onRotation(decoder::invalidateAll);
+        return decoder;
+    }
+
     @Bean
     public ReactiveJwtAuthenticationConverter jwtAuthenticationConverter() {
         JwtGrantedAuthoritiesConverter grantedAuthoritiesConverter = new JwtGrantedAuthoritiesConverter();
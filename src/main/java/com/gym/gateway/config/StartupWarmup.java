@@ -0,0 +1,148 @@
+package com.gym.gateway.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gym.gateway.client.DownstreamWebClients;
+import com.gym.gateway.client.ServiceInstanceResolver;
+import com.gym.gateway.dto.ClassSummaryDTO;
+import com.gym.gateway.dto.MemberSummaryDTO;
+import com.gym.gateway.dto.PaymentSummaryDTO;
+import com.gym.gateway.security.JwkSetSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+// Calentamiento opcional (gateway.warmup.enabled) antes de aceptar tráfico: Spring Boot no marca la
+// aplicación como ready hasta que terminan los ApplicationRunner. Descarga el JWK set, resuelve todas las
+// instancias de los microservicios de la agregación, abre conexiones a cada una y ejercita Jackson con
+// MemberSummaryDTO. Un fallo solo se registra: el gateway arranca igual, como sin calentamiento.
+// La propiedad se lee en tiempo de ejecución (no con @ConditionalOnProperty) para que funcione con el build AOT.
+@Slf4j
+@Component
+public class StartupWarmup implements ApplicationRunner {
+
+    private final JwkSetSource jwkSetSource;
+    private final ServiceInstanceResolver serviceInstanceResolver;
+    private final DownstreamWebClients downstreamWebClients;
+    private final ObjectMapper objectMapper;
+
+    @Value("${gateway.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Value("${gateway.warmup.services:member-microservice,class-microservice,payment-microservice}")
+    private List<String> services;
+
+    @Value("${gateway.warmup.connections-per-instance:2}")
+    private int connectionsPerInstance;
+
+    @Value("${gateway.warmup.probe-path:/actuator/health}")
+    private String probePath;
+
+    @Value("${gateway.warmup.timeout:30s}")
+    private Duration timeout;
+
+    public StartupWarmup(JwkSetSource jwkSetSource,
+                         ServiceInstanceResolver serviceInstanceResolver,
+                         DownstreamWebClients downstreamWebClients,
+                         ObjectMapper objectMapper) {
+        this.jwkSetSource = jwkSetSource;
+        this.serviceInstanceResolver = serviceInstanceResolver;
+        this.downstreamWebClients = downstreamWebClients;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        warmJackson();
+        Mono<Void> jwks = jwkSetSource.jwkSet()
+                .doOnNext(jwkSet -> log.info("🔥 JWK set precargado ({} claves)", jwkSet.getKeys().size()))
+                .onErrorResume(e -> {
+                    log.warn("⚠️ No se pudo precargar el JWK set: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+        Mono<Void> connections = Flux.fromIterable(services)
+                .flatMap(this::warmService)
+                .then();
+        try {
+            Mono.when(jwks, connections).block(timeout);
+            log.info("🔥 Calentamiento completado en {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Calentamiento incompleto tras {}: {}", timeout, e.getMessage());
+        }
+    }
+
+    // El registro de Eureka puede llegar unos segundos después del arranque: se reintenta hasta el timeout
+    private Mono<Void> warmService(String serviceId) {
+        return serviceInstanceResolver.resolveAll(serviceId)
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofMillis(500)))
+                .flatMap(instances -> Flux.fromIterable(instances)
+                        .flatMap(instance -> openConnections(serviceId, instance))
+                        .reduce(0L, Long::sum)
+                        .doOnNext(opened -> log.info("🔥 {}: {} conexiones abiertas en {} instancias",
+                                serviceId, opened, instances.size())))
+                .onErrorResume(e -> {
+                    log.warn("⚠️ No se pudo calentar {}: {}", serviceId, e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // Peticiones concurrentes para que el pool quede con varias conexiones; el estado de la respuesta da igual
+    private Mono<Long> openConnections(String serviceId, ServiceInstance instance) {
+        String uri = instance.getUri() + probePath;
+        return Flux.range(0, connectionsPerInstance)
+                .flatMap(i -> downstreamWebClients.forService(serviceId).get()
+                        .uri(uri)
+                        .exchangeToMono(response -> response.releaseBody().thenReturn(true))
+                        .onErrorReturn(false))
+                .filter(Boolean::booleanValue)
+                .count();
+    }
+
+    private void warmJackson() {
+        ClassSummaryDTO gymClass = new ClassSummaryDTO();
+        gymClass.setId(1L);
+        gymClass.setName("Warmup");
+        gymClass.setSchedule(LocalDateTime.of(2024, 1, 15, 10, 0));
+        gymClass.setMaxCapacity(20);
+        gymClass.setEnrolled(true);
+
+        PaymentSummaryDTO payment = new PaymentSummaryDTO();
+        payment.setId(1L);
+        payment.setMemberId(1L);
+        payment.setAmount(50.0);
+        payment.setPaymentDate(OffsetDateTime.of(2024, 1, 15, 10, 0, 0, 0, ZoneOffset.UTC));
+
+        MemberSummaryDTO summary = new MemberSummaryDTO();
+        summary.setId(1L);
+        summary.setName("Warmup");
+        summary.setRegistrationDate(LocalDate.of(2024, 1, 15));
+        summary.setEnrolledClasses(List.of(gymClass));
+        summary.setPayments(List.of(payment));
+        summary.setTotalClasses(1);
+        summary.setTotalPayments(50.0);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(summary);
+            objectMapper.readValue(json, MemberSummaryDTO.class);
+        } catch (Exception e) {
+            log.warn("⚠️ No se pudo calentar Jackson: {}", e.getMessage());
+        }
+    }
+}
@@ -1,7 +1,17 @@
 package com.gym.gateway.controller;
 
+import com.gym.gateway.config.BinaryCodecsConfig;
+import com.gym.gateway.dto.MemberExportRecordDTO;
 import com.gym.gateway.dto.MemberSummaryDTO;
+import com.gym.gateway.dto.MemberSummaryEventDTO;
+import com.gym.gateway.dto.MemberSummaryResultDTO;
+import com.gym.gateway.exception.ServiceInstanceNotFoundException;
+import com.gym.gateway.exception.ServiceOverloadedException;
+import com.gym.gateway.service.AggregationTrace;
 import com.gym.gateway.service.MemberAggregationService;
+import com.gym.gateway.service.SummaryETags;
+import com.gym.gateway.service.SummaryField;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,9 +19,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api")
@@ -19,9 +39,14 @@ import reactor.core.publisher.Mono;
 @Tag(name = "Member Aggregation", description = "API para agregación de datos de miembros")
 @SecurityRequirement(name = "bearer-key")
 public class MemberAggregationController {
+
+    private static final String SERVER_TIMING_HEADER = "Server-Timing";
     
     @Autowired
     private MemberAggregationService memberAggregationService;
+
+    @Autowired
+    private SummaryETags summaryETags;
     
     @GetMapping("/test")
     @Operation(summary = "Test endpoint", description = "Endpoint de prueba para verificar que el controlador funciona")
@@ -36,6 +61,9 @@ public class MemberAggregationController {
                 "- GET /api/test - Endpoint de prueba\n" +
                 "- GET /api/routes - Lista de rutas\n" +
                 "- GET /api/aggregation/members/{id}/summary - Resumen de miembro (requiere autenticación)\n" +
+                "- GET /api/aggregation/members/{id}/summary/stream - Resumen de miembro por secciones en streaming (requiere autenticación)\n" +
+                "- POST /api/aggregation/members/summary - Resúmenes de miembros en lote (requiere autenticación)\n" +
+                "- GET /api/aggregation/members/export - Exportación NDJSON de todos los resúmenes (requiere ROLE_ADMIN)\n" +
                 "- GET /api/members - Lista de miembros\n" +
                 "- GET /api/members/{id} - Miembro por ID\n" +
                 "- GET /api/members/email/{email} - Miembro por email\n" +
@@ -44,29 +72,138 @@ public class MemberAggregationController {
         return Mono.just(ResponseEntity.ok(routes));
     }
     
-    @GetMapping("/aggregation/members/{id}/summary")
+    @GetMapping(value = "/aggregation/members/{id}/summary",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, BinaryCodecsConfig.APPLICATION_SMILE_VALUE})
     @Operation(
         summary = "Obtener resumen completo de miembro", 
-        description = "Obtiene información agregada de un miembro incluyendo sus clases inscritas y pagos realizados"
+        description = "Obtiene información agregada de un miembro incluyendo sus clases inscritas y pagos realizados. " +
+                "Con fields se eligen las secciones (member, classes, payments, totalClasses, totalPayments, coaches); " +
+                "las secciones no pedidas no se consultan. Con Accept: application/cbor o application/x-jackson-smile " +
+                "el resumen se devuelve en ese formato binario"
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Resumen del miembro obtenido exitosamente"),
+        @ApiResponse(responseCode = "304", description = "El resumen no ha cambiado respecto al ETag de If-None-Match"),
+        @ApiResponse(responseCode = "400", description = "Campo de resumen desconocido, o coaches sin classes"),
         @ApiResponse(responseCode = "404", description = "Miembro no encontrado"),
-        @ApiResponse(responseCode = "500", description = "Error interno del servidor")
+        @ApiResponse(responseCode = "502", description = "Un microservicio respondió con error o no respondió a tiempo"),
+        @ApiResponse(responseCode = "503", description = "Un microservicio no está disponible o está por encima de su límite de concurrencia (con Retry-After)")
     })
     @SuppressWarnings("unchecked")
     public Mono<ResponseEntity<MemberSummaryDTO>> getMemberSummary(
-            @Parameter(description = "ID del miembro") @PathVariable Long id) {
-        
-        return memberAggregationService.getMemberSummary(id)
+            @Parameter(description = "ID del miembro") @PathVariable Long id,
+            @Parameter(description = "Secciones a incluir, separadas por comas (por defecto todas)", example = "member,totalClasses")
+            @RequestParam(required = false) String fields) {
+
+        Set<SummaryField> summaryFields;
+        try {
+            summaryFields = SummaryField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        // Los tiempos de cada microservicio se devuelven en Server-Timing
+        AggregationTrace trace = new AggregationTrace();
+        long start = System.nanoTime();
+        return memberAggregationService.getMemberSummary(id, summaryFields)
                 .map(summary -> {
+                    String serverTiming = trace.toServerTiming(System.nanoTime() - start);
                     if (summary.getId() == null) {
-                        return ResponseEntity.notFound().build();
+                        return ResponseEntity.notFound().header(SERVER_TIMING_HEADER, serverTiming).build();
                     }
-                    return ResponseEntity.ok(summary);
+                    // con ETag, Spring responde 304 sin cuerpo si coincide con If-None-Match
+                    return ResponseEntity.ok()
+                            .header(SERVER_TIMING_HEADER, serverTiming)
+                            .eTag(summaryETags.etagOf(summary))
+                            .cacheControl(CacheControl.noCache().cachePrivate())
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .body(summary);
                 })
                 .cast(ResponseEntity.class)
                 .map(response -> (ResponseEntity<MemberSummaryDTO>) response)
-                .onErrorReturn(ResponseEntity.internalServerError().build());
+                .contextWrite(Context.of(AggregationTrace.class, trace))
+                .onErrorResume(ServiceOverloadedException.class, e -> Mono.just(ResponseEntity
+                        .status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, e.getRetryAfterSeconds())
+                        .<MemberSummaryDTO>build()))
+                .onErrorResume(e -> Mono.just(ResponseEntity.status(upstreamErrorStatus(e)).build()));
+    }
+
+    // Sin instancias o con el circuito abierto el microservicio no está disponible (503);
+    // cualquier otro fallo es una respuesta inválida o un timeout de quien está detrás (502)
+    private static HttpStatus upstreamErrorStatus(Throwable error) {
+        if (error instanceof ServiceInstanceNotFoundException || error instanceof CallNotPermittedException) {
+            return HttpStatus.SERVICE_UNAVAILABLE;
+        }
+        return HttpStatus.BAD_GATEWAY;
+    }
+
+    @PostMapping(value = "/aggregation/members/summary",
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, BinaryCodecsConfig.APPLICATION_SMILE_VALUE})
+    @Operation(
+        summary = "Obtener resúmenes de varios miembros",
+        description = "Obtiene en una sola llamada el resumen de una lista de miembros. Los IDs duplicados se ignoran, " +
+                "los resultados se devuelven en el orden solicitado (o como stream con Accept: application/x-ndjson) " +
+                "y cada miembro informa su propio estado (OK, NOT_FOUND o ERROR)"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Resultados por miembro obtenidos"),
+        @ApiResponse(responseCode = "400", description = "Lista de IDs vacía o mayor que el tamaño máximo de lote")
+    })
+    public Mono<ResponseEntity<Flux<MemberSummaryResultDTO>>> getMemberSummaries(
+            @RequestBody List<Long> ids) {
+
+        List<Long> memberIds = ids == null ? List.of() : ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (memberIds.isEmpty() || memberIds.size() > memberAggregationService.getBatchMaxSize()) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return Mono.just(ResponseEntity.ok(memberAggregationService.getMemberSummaries(memberIds)));
+    }
+
+    @GetMapping(value = "/aggregation/members/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Exportar los resúmenes de todos los miembros",
+        description = "Recorre member-microservice por páginas y emite un resumen por línea (NDJSON) a medida que " +
+                "se construyen, con backpressure hasta el cliente. Cada línea lleva el cursor con el que reanudar " +
+                "la exportación tras ella. Requiere ROLE_ADMIN"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream de resúmenes, uno por miembro"),
+        @ApiResponse(responseCode = "400", description = "Cursor negativo, campo de resumen desconocido o coaches sin classes")
+    })
+    public Mono<ResponseEntity<Flux<MemberExportRecordDTO>>> exportMemberSummaries(
+            @Parameter(description = "ID tras el que reanudar (el cursor de la última línea recibida)", example = "0")
+            @RequestParam(defaultValue = "0") long cursor,
+            @Parameter(description = "Secciones a incluir, separadas por comas (por defecto todas)", example = "member,totalPayments")
+            @RequestParam(required = false) String fields) {
+
+        Set<SummaryField> summaryFields;
+        try {
+            summaryFields = SummaryField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (cursor < 0) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        return Mono.just(ResponseEntity.ok(memberAggregationService.exportMemberSummaries(cursor, summaryFields)));
+    }
+
+    @GetMapping(value = "/aggregation/members/{id}/summary/stream",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE})
+    @Operation(
+        summary = "Obtener resumen de miembro en streaming",
+        description = "Emite el resumen por secciones (MEMBER, CLASSES, PAYMENTS) en el orden en que responden los " +
+                "microservicios, con los pagos en bloques, y termina con un evento TOTALS. Admite NDJSON y SSE"
+    )
+    @ApiResponse(responseCode = "200", description = "Stream de secciones del resumen")
+    public Flux<MemberSummaryEventDTO> streamMemberSummary(
+            @Parameter(description = "ID del miembro") @PathVariable Long id) {
+        return memberAggregationService.streamMemberSummary(id);
     }
 }
@@ -1,6 +1,7 @@
 package com.gym.gateway.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
@@ -25,6 +26,10 @@ public class ClassSummaryDTO {
     
     @Schema(description = "ID del coach asignado", example = "1")
     private Long coachId;
+
+    @Schema(description = "Datos del coach asignado (sección coaches)")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private CoachSummaryDTO coach;
     
     @Schema(description = "Indica si el miembro está inscrito en esta clase", example = "true")
     private Boolean enrolled;
@@ -0,0 +1,21 @@
+package com.gym.gateway.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(description = "DTO que representa el coach de una clase")
+public class CoachSummaryDTO {
+
+    @Schema(description = "ID único del coach", example = "1")
+    private Long id;
+
+    @Schema(description = "Nombre completo del coach", example = "Carlos Pérez")
+    private String name;
+
+    @Schema(description = "Email del coach", example = "carlos.perez@email.com")
+    private String email;
+
+    @Schema(description = "Especialidad del coach", example = "Yoga")
+    private String specialty;
+}
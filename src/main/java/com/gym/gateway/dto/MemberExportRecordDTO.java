@@ -0,0 +1,44 @@
+package com.gym.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Línea de la exportación de resúmenes: un miembro y el cursor para reanudar tras él")
+public class MemberExportRecordDTO {
+
+    @Schema(description = "ID del miembro exportado; se pasa como cursor para reanudar la exportación tras este registro", example = "101")
+    private Long cursor;
+
+    @Schema(description = "ID del miembro", example = "1")
+    private Long memberId;
+
+    @Schema(description = "Estado del resultado", example = "OK", allowableValues = {"OK", "ERROR"})
+    private String status;
+
+    @Schema(description = "Resumen del miembro cuando el estado es OK")
+    private MemberSummaryDTO summary;
+
+    @Schema(description = "Descripción del error cuando el estado es ERROR")
+    private String error;
+
+    public static MemberExportRecordDTO ok(long cursor, Long memberId, MemberSummaryDTO summary) {
+        MemberExportRecordDTO record = new MemberExportRecordDTO();
+        record.setCursor(cursor);
+        record.setMemberId(memberId);
+        record.setStatus(MemberSummaryResultDTO.STATUS_OK);
+        record.setSummary(summary);
+        return record;
+    }
+
+    public static MemberExportRecordDTO error(long cursor, Long memberId, String error) {
+        MemberExportRecordDTO record = new MemberExportRecordDTO();
+        record.setCursor(cursor);
+        record.setMemberId(memberId);
+        record.setStatus(MemberSummaryResultDTO.STATUS_ERROR);
+        record.setError(error);
+        return record;
+    }
+}
@@ -1,6 +1,7 @@
 package com.gym.gateway.dto;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 
@@ -8,6 +9,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @Schema(description = "DTO que representa el resumen completo de un miembro con sus clases y pagos")
 public class MemberSummaryDTO {
     
@@ -35,4 +37,10 @@ public class MemberSummaryDTO {
     
     @Schema(description = "Número total de clases inscritas", example = "5")
     private Integer totalClasses;
+
+    @Schema(description = "Presente y a true si alguna sección se sirvió desde la última respuesta correcta por fallo de su microservicio")
+    private Boolean stale;
+
+    @Schema(description = "Secciones servidas desde la última respuesta correcta", example = "[\"payments\"]")
+    private List<String> staleSections;
 }
@@ -0,0 +1,61 @@
+package com.gym.gateway.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Evento de un resumen de miembro en streaming: cada sección se emite en cuanto responde su microservicio")
+public class MemberSummaryEventDTO {
+
+    public static final String TYPE_MEMBER = "MEMBER";
+    public static final String TYPE_CLASSES = "CLASSES";
+    public static final String TYPE_PAYMENTS = "PAYMENTS";
+    public static final String TYPE_TOTALS = "TOTALS";
+
+    @Schema(description = "Tipo de sección", example = "MEMBER", allowableValues = {"MEMBER", "CLASSES", "PAYMENTS", "TOTALS"})
+    private String type;
+
+    @Schema(description = "ID del miembro", example = "1")
+    private Long memberId;
+
+    @Schema(description = "Nombre completo del miembro", example = "Ana López")
+    private String name;
+
+    @Schema(description = "Email del miembro", example = "ana.lopez@email.com")
+    private String email;
+
+    @Schema(description = "Fecha de registro del miembro", example = "2024-01-15")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate registrationDate;
+
+    @Schema(description = "Clases inscritas (sección CLASSES)")
+    private List<ClassSummaryDTO> classes;
+
+    @Schema(description = "Bloque de pagos (sección PAYMENTS); los pagos pueden llegar en varios eventos")
+    private List<PaymentSummaryDTO> payments;
+
+    @Schema(description = "Número total de clases inscritas (sección TOTALS)", example = "5")
+    private Integer totalClasses;
+
+    @Schema(description = "Total de pagos realizados (sección TOTALS)", example = "150.00")
+    private Double totalPayments;
+
+    @Schema(description = "Presente y a true si la sección se sirvió desde la última respuesta correcta")
+    private Boolean stale;
+
+    @Schema(description = "Descripción del error si la sección no pudo obtenerse")
+    private String error;
+
+    public static MemberSummaryEventDTO of(String type, Long memberId) {
+        MemberSummaryEventDTO event = new MemberSummaryEventDTO();
+        event.setType(type);
+        event.setMemberId(memberId);
+        return event;
+    }
+}
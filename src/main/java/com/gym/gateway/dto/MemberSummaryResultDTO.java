@@ -0,0 +1,48 @@
+package com.gym.gateway.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+@Data
+@Schema(description = "Resultado individual de un miembro dentro de una consulta de resúmenes en lote")
+public class MemberSummaryResultDTO {
+
+    public static final String STATUS_OK = "OK";
+    public static final String STATUS_NOT_FOUND = "NOT_FOUND";
+    public static final String STATUS_ERROR = "ERROR";
+
+    @Schema(description = "ID del miembro solicitado", example = "1")
+    private Long memberId;
+
+    @Schema(description = "Estado del resultado", example = "OK", allowableValues = {"OK", "NOT_FOUND", "ERROR"})
+    private String status;
+
+    @Schema(description = "Resumen del miembro cuando el estado es OK")
+    private MemberSummaryDTO summary;
+
+    @Schema(description = "Descripción del error cuando el estado es ERROR")
+    private String error;
+
+    public static MemberSummaryResultDTO ok(Long memberId, MemberSummaryDTO summary) {
+        MemberSummaryResultDTO result = new MemberSummaryResultDTO();
+        result.setMemberId(memberId);
+        result.setStatus(STATUS_OK);
+        result.setSummary(summary);
+        return result;
+    }
+
+    public static MemberSummaryResultDTO notFound(Long memberId) {
+        MemberSummaryResultDTO result = new MemberSummaryResultDTO();
+        result.setMemberId(memberId);
+        result.setStatus(STATUS_NOT_FOUND);
+        return result;
+    }
+
+    public static MemberSummaryResultDTO error(Long memberId, String error) {
+        MemberSummaryResultDTO result = new MemberSummaryResultDTO();
+        result.setMemberId(memberId);
+        result.setStatus(STATUS_ERROR);
+        result.setError(error);
+        return result;
+    }
+}
@@ -0,0 +1,18 @@
+package com.gym.gateway.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+public class ServiceInstanceNotFoundException extends ResponseStatusException {
+
+    private final String serviceId;
+
+    public ServiceInstanceNotFoundException(String serviceId) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Service " + serviceId + " not found");
+        this.serviceId = serviceId;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+}
@@ -0,0 +1,38 @@
+package com.gym.gateway.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+public class ServiceOverloadedException extends ResponseStatusException {
+
+    private final String serviceId;
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String serviceId, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "Service " + serviceId + " over its concurrency limit");
+        this.serviceId = serviceId;
+        this.retryAfter = retryAfter;
+    }
+
+    public String getServiceId() {
+        return serviceId;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    public String getRetryAfterSeconds() {
+        return String.valueOf(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, getRetryAfterSeconds());
+        return headers;
+    }
+}
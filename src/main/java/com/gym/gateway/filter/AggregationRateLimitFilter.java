@@ -0,0 +1,50 @@
+package com.gym.gateway.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+// Los endpoints de agregación los sirve el propio gateway y no pasan por las rutas, así que
+// se limitan con un WebFilter que comparte los buckets de LocalRateLimiter.
+// Se ejecuta después de Spring Security para poder limitar por el sub del JWT.
+@Component
+public class AggregationRateLimitFilter implements WebFilter, Ordered {
+
+    private static final String AGGREGATION_PATH = "/api/aggregation/";
+    private static final String SCOPE = "aggregation";
+
+    private final LocalRateLimiter localRateLimiter;
+    private final boolean enabled;
+    private final double replenishRate;
+    private final int burstCapacity;
+    private final LocalRateLimiter.KeyBy keyBy;
+
+    public AggregationRateLimitFilter(LocalRateLimiter localRateLimiter,
+                                      @Value("${gateway.rate-limit.aggregation.enabled:true}") boolean enabled,
+                                      @Value("${gateway.rate-limit.aggregation.replenish-rate:10}") double replenishRate,
+                                      @Value("${gateway.rate-limit.aggregation.burst-capacity:20}") int burstCapacity,
+                                      @Value("${gateway.rate-limit.aggregation.key-by:USER}") LocalRateLimiter.KeyBy keyBy) {
+        this.localRateLimiter = localRateLimiter;
+        this.enabled = enabled;
+        this.replenishRate = replenishRate;
+        this.burstCapacity = burstCapacity;
+        this.keyBy = keyBy;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        if (!enabled || !exchange.getRequest().getPath().value().startsWith(AGGREGATION_PATH)) {
+            return chain.filter(exchange);
+        }
+        return localRateLimiter.filter(exchange, SCOPE, replenishRate, burstCapacity, keyBy, () -> chain.filter(exchange));
+    }
+
+    @Override
+    public int getOrder() {
+        return 0;
+    }
+}
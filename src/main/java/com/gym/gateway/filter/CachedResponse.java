@@ -0,0 +1,66 @@
+package com.gym.gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Respuesta de un microservicio ya leída entera (estado, cabeceras y cuerpo), para reenviarla
+// a otras peticiones sin volver a llamar al backend
+public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+
+    // Cabeceras de la petición que forman parte de la clave de ResponseCache y RequestCollapsing
+    static final List<String> KEY_HEADERS = List.of(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+    // Hop-by-hop y cabeceras que pone el propio gateway en cada petición (rate limit, caché, agrupación,
+    // tiempos): al reenviar se conservan las de la petición actual, no las de quien hizo la llamada.
+    // Set-Cookie tampoco se reenvía: la respuesta puede servirse a otros usuarios.
+    private static final Set<String> NOT_REPLAYED = Stream.of(
+            HttpHeaders.CONNECTION, "Keep-Alive", HttpHeaders.PROXY_AUTHENTICATE, HttpHeaders.PROXY_AUTHORIZATION,
+            HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE,
+            HttpHeaders.CONTENT_LENGTH, HttpHeaders.SET_COOKIE, "Server-Timing",
+            LocalRateLimiter.LIMIT_HEADER, LocalRateLimiter.REMAINING_HEADER, LocalRateLimiter.RESET_HEADER,
+            ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER, RequestCollapsingGatewayFilterFactory.COLLAPSED_HEADER)
+            .map(name -> name.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toUnmodifiableSet());
+
+    public Mono<Void> writeTo(ServerHttpResponse response) {
+        response.setStatusCode(status);
+        HttpHeaders responseHeaders = response.getHeaders();
+        headers.forEach((name, values) -> {
+            if (!NOT_REPLAYED.contains(name.toLowerCase(Locale.ROOT)) && !responseHeaders.containsKey(name)) {
+                responseHeaders.put(name, values);
+            }
+        });
+        responseHeaders.setContentLength(body.length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(body)));
+    }
+
+    // true si el microservicio declara en Vary alguna cabecera que no está en la clave (o Vary: *):
+    // esa respuesta no se puede reenviar a otra petición con la misma clave
+    public boolean variesBeyondKey() {
+        for (String name : headers.getVary()) {
+            if (KEY_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ruta + query + cabeceras de KEY_HEADERS; el ámbito del JWT lo añade cada filtro
+    static String resourceKey(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(request.getURI().getRawPath())
+                .append('?').append(request.getURI().getRawQuery() != null ? request.getURI().getRawQuery() : "");
+        for (String header : KEY_HEADERS) {
+            key.append('|').append(String.join(",", request.getHeaders().getOrEmpty(header)));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,65 @@
+package com.gym.gateway.filter;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.util.function.Consumer;
+
+// Deja pasar la respuesta al cliente sin retenerla y, a la vez, copia el cuerpo. Al completarse
+// entrega un CachedResponse; si el cuerpo supera maxBytes deja de copiar y no entrega nada.
+// Para que reciba la respuesta, el filtro que lo instala debe ir antes de NettyWriteResponseFilter.
+class CapturingResponseDecorator extends ServerHttpResponseDecorator {
+
+    private final int maxBytes;
+    private final Consumer<CachedResponse> onCaptured;
+
+    CapturingResponseDecorator(ServerHttpResponse delegate, int maxBytes, Consumer<CachedResponse> onCaptured) {
+        super(delegate);
+        this.maxBytes = maxBytes;
+        this.onCaptured = onCaptured;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+        Long contentLength = getHeaders().getContentLength() >= 0 ? getHeaders().getContentLength() : null;
+        if (contentLength != null && contentLength > maxBytes) {
+            return super.writeWith(body);
+        }
+
+        ByteArrayOutputStream copy = new ByteArrayOutputStream(contentLength != null ? contentLength.intValue() : 1024);
+        boolean[] overflow = {false};
+        Flux<? extends DataBuffer> captured = Flux.from(body)
+                .doOnNext(buffer -> {
+                    if (overflow[0]) {
+                        return;
+                    }
+                    int readable = buffer.readableByteCount();
+                    if (copy.size() + readable > maxBytes) {
+                        overflow[0] = true;
+                        return;
+                    }
+                    byte[] bytes = new byte[readable];
+                    int position = buffer.readPosition();
+                    buffer.read(bytes);
+                    buffer.readPosition(position);
+                    copy.writeBytes(bytes);
+                })
+                .doOnComplete(() -> {
+                    if (!overflow[0]) {
+                        HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.putAll(getHeaders());
+                        onCaptured.accept(new CachedResponse(status, HttpHeaders.readOnlyHttpHeaders(headers), copy.toByteArray()));
+                    }
+                });
+        return super.writeWith(captured);
+    }
+}
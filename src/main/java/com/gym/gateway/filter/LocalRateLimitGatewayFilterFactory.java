@@ -0,0 +1,56 @@
+package com.gym.gateway.filter;
+
+import lombok.Data;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Uso en una ruta: filters[n]=LocalRateLimit=<tokens por segundo>, <ráfaga>, <USER|IP|ROUTE>
+@Component
+public class LocalRateLimitGatewayFilterFactory extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+
+    private final LocalRateLimiter localRateLimiter;
+    // gateway.rate-limit.routes.enabled=false deja pasar todo sin tocar la configuración de cada ruta
+    private final boolean enabled;
+
+    public LocalRateLimitGatewayFilterFactory(LocalRateLimiter localRateLimiter,
+                                              @Value("${gateway.rate-limit.routes.enabled:true}") boolean enabled) {
+        super(Config.class);
+        this.localRateLimiter = localRateLimiter;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("replenishRate", "burstCapacity", "keyBy");
+    }
+
+    // Orden fijo delante de ResponseCache y RequestCollapsing (que van justo antes de NettyWriteResponseFilter):
+    // sin él la posición en la ruta le daría un orden positivo y los aciertos de caché se saltarían el límite
+    @Override
+    public GatewayFilter apply(Config config) {
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (!enabled) {
+                return chain.filter(exchange);
+            }
+            Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+            String scope = route != null ? route.getId() : "default";
+            return localRateLimiter.filter(exchange, scope, config.getReplenishRate(), config.getBurstCapacity(),
+                    config.getKeyBy(), () -> chain.filter(exchange));
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3);
+    }
+
+    @Data
+    public static class Config {
+        private double replenishRate = 10;
+        private int burstCapacity = 20;
+        private LocalRateLimiter.KeyBy keyBy = LocalRateLimiter.KeyBy.USER;
+    }
+}
@@ -0,0 +1,120 @@
+package com.gym.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Token buckets en memoria, sin Redis: cada nodo del gateway limita por su cuenta.
+// Los buckets viven en Caffeine y se actualizan con compute (bloqueo por bin del mapa, no global);
+// los que llevan idle-timeout sin usarse se expulsan, así que la memoria depende de los clientes
+// activos y no de todos los que han pasado alguna vez.
+@Component
+public class LocalRateLimiter {
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    public enum KeyBy {
+        USER, IP, ROUTE
+    }
+
+    private final Cache<String, Bucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public LocalRateLimiter(@Value("${gateway.rate-limit.max-buckets:1000000}") long maxBuckets,
+                            @Value("${gateway.rate-limit.idle-timeout:10m}") Duration idleTimeout,
+                            MeterRegistry meterRegistry) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(idleTimeout)
+                .recordStats()
+                .build();
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rateLimitBuckets");
+    }
+
+    // Consume un token del bucket (scope, clave del llamante); sin tokens responde 429 sin llamar a next
+    public Mono<Void> filter(ServerWebExchange exchange, String scope, double replenishRate, int burstCapacity,
+                             KeyBy keyBy, Supplier<Mono<Void>> next) {
+        return resolveKey(exchange, scope, keyBy).flatMap(key -> {
+            long now = System.nanoTime();
+            Bucket bucket = buckets.asMap().compute(scope + "|" + key, (k, current) ->
+                    (current == null ? Bucket.full(burstCapacity, now) : current).take(replenishRate, burstCapacity, now));
+
+            HttpHeaders headers = exchange.getResponse().getHeaders();
+            headers.set(LIMIT_HEADER, String.valueOf(burstCapacity));
+            headers.set(REMAINING_HEADER, String.valueOf((long) Math.floor(bucket.tokens())));
+            headers.set(RESET_HEADER, String.valueOf(bucket.secondsUntilToken(replenishRate)));
+            if (bucket.allowed()) {
+                return next.get();
+            }
+
+            Counter.builder("gateway.rate-limit.rejected")
+                    .tag("scope", scope)
+                    .tag("key", keyBy.name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, bucket.secondsUntilToken(replenishRate))));
+            exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            return exchange.getResponse().setComplete();
+        });
+    }
+
+    // USER usa el sub del JWT (nunca una cabecera X-User-Id enviada por el cliente); sin JWT se limita por IP
+    private Mono<String> resolveKey(ServerWebExchange exchange, String scope, KeyBy keyBy) {
+        return switch (keyBy) {
+            case USER -> exchange.getPrincipal()
+                    .map(Principal::getName)
+                    .map(sub -> "user:" + sub)
+                    .switchIfEmpty(Mono.fromSupplier(() -> "ip:" + clientIp(exchange)));
+            case IP -> Mono.just("ip:" + clientIp(exchange));
+            case ROUTE -> {
+                Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                yield Mono.just("route:" + (route != null ? route.getId() : scope));
+            }
+        };
+    }
+
+    private static String clientIp(ServerWebExchange exchange) {
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        return remoteAddress == null || remoteAddress.getAddress() == null
+                ? "unknown"
+                : remoteAddress.getAddress().getHostAddress();
+    }
+
+    private record Bucket(double tokens, long refilledAt, boolean allowed) {
+
+        static Bucket full(int burstCapacity, long now) {
+            return new Bucket(burstCapacity, now, false);
+        }
+
+        Bucket take(double replenishRate, int burstCapacity, long now) {
+            double elapsedSeconds = (now - refilledAt) / (double) TimeUnit.SECONDS.toNanos(1);
+            double available = Math.min(burstCapacity, tokens + elapsedSeconds * replenishRate);
+            return available >= 1
+                    ? new Bucket(available - 1, now, true)
+                    : new Bucket(available, now, false);
+        }
+
+        long secondsUntilToken(double replenishRate) {
+            return tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) / replenishRate);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.gym.gateway.filter;
+
+import com.gym.gateway.route.PrefixRouteTrie;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.addOriginalRequestUrl;
+
+// Uso en una ruta: filters[n]=PrefixRewrite=/member-microservice/api/members, /api/members
+// Sustituto de RewritePath para reescrituras de prefijo: sin expresión regular por petición, solo
+// cambia el prefijo y conserva el resto del path y la query
+@Component
+public class PrefixRewriteGatewayFilterFactory extends AbstractGatewayFilterFactory<PrefixRewriteGatewayFilterFactory.Config> {
+
+    public PrefixRewriteGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("from", "to");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String from = PrefixRouteTrie.normalize(config.getFrom());
+        String to = config.getTo() == null ? "" : PrefixRouteTrie.normalize(config.getTo());
+        return (exchange, chain) -> {
+            ServerHttpRequest req = exchange.getRequest();
+            String path = req.getURI().getRawPath();
+            String newPath = PrefixRouteTrie.rewrite(path, from, to);
+            if (newPath.equals(path)) {
+                return chain.filter(exchange);
+            }
+            addOriginalRequestUrl(exchange, req.getURI());
+            ServerHttpRequest request = req.mutate().path(newPath).build();
+            exchange.getAttributes().put(GATEWAY_REQUEST_URL_ATTR, request.getURI());
+            return chain.filter(exchange.mutate().request(request).build());
+        };
+    }
+
+    @Data
+    public static class Config {
+        private String from;
+        private String to;
+    }
+}
@@ -0,0 +1,127 @@
+package com.gym.gateway.filter;
+
+import com.gym.gateway.security.IdentityPropagation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Agrupa GETs idénticos en vuelo. Uso: filters[n]=RequestCollapsing=<espera máxima>, <tamaño máximo>[, <perUser>]
+// La primera petición de una clave (ruta + query + Accept + Accept-Encoding + roles del JWT y, salvo
+// perUser=false, usuario) va al microservicio; las que llegan mientras tanto esperan su respuesta, como mucho
+// maxWait, y reciben una copia. La clave se libera en cuanto hay respuesta, así que nunca se
+// sirve nada que no estuviera en vuelo. Si la espera vence, la respuesta supera maxSize o la
+// primera falla, cada petición en espera va por su cuenta al microservicio; también si la respuesta
+// lleva Vary sobre cabeceras que no están en la clave.
+@Component
+public class RequestCollapsingGatewayFilterFactory extends AbstractGatewayFilterFactory<RequestCollapsingGatewayFilterFactory.Config> {
+
+    public static final String COLLAPSED_HEADER = "X-Collapsed";
+
+    private final IdentityPropagation identityPropagation;
+    private final MeterRegistry meterRegistry;
+
+    public RequestCollapsingGatewayFilterFactory(IdentityPropagation identityPropagation, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.identityPropagation = identityPropagation;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxWait", "maxSize", "perUser");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Map<String, Sinks.One<CachedResponse>> inFlight = new ConcurrentHashMap<>();
+        Counter leaders = counter(routeId, "leader");
+        Counter followers = counter(routeId, "follower");
+        Counter fallbacks = counter(routeId, "fallback");
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, config.getMaxSize().toBytes());
+
+        // justo antes de NettyWriteResponseFilter y después de ResponseCache: un acierto de caché no llega aquí
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET) {
+                return chain.filter(exchange);
+            }
+            return collapseKey(exchange, config).flatMap(key -> {
+                Sinks.One<CachedResponse> leaderResponse = Sinks.one();
+                Sinks.One<CachedResponse> existing = inFlight.putIfAbsent(key, leaderResponse);
+
+                if (existing != null) {
+                    followers.increment();
+                    return existing.asMono()
+                            .timeout(config.getMaxWait(), Mono.empty())
+                            .flatMap(response -> {
+                                exchange.getResponse().getHeaders().set(COLLAPSED_HEADER, "true");
+                                return response.writeTo(exchange.getResponse());
+                            })
+                            .switchIfEmpty(Mono.defer(() -> {
+                                fallbacks.increment();
+                                return chain.filter(exchange);
+                            }));
+                }
+
+                leaders.increment();
+                CapturingResponseDecorator response = new CapturingResponseDecorator(exchange.getResponse(), maxBytes, captured -> {
+                    inFlight.remove(key, leaderResponse);
+                    // solo se comparte un 2xx; un 401/403/404 o un error del microservicio no se reparte
+                    // entre los que esperan, que van cada uno por su cuenta
+                    if (!captured.status().is2xxSuccessful() || captured.variesBeyondKey()) {
+                        leaderResponse.tryEmitEmpty();
+                    } else {
+                        leaderResponse.tryEmitValue(captured);
+                    }
+                });
+                return chain.filter(exchange.mutate().response(response).build())
+                        .doFinally(signal -> {
+                            // error, cancelación o respuesta demasiado grande: los que esperan van por su cuenta
+                            inFlight.remove(key, leaderResponse);
+                            leaderResponse.tryEmitEmpty();
+                        });
+            });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<String> collapseKey(ServerWebExchange exchange, Config config) {
+        String resource = CachedResponse.resourceKey(exchange.getRequest());
+        return identityPropagation.currentIdentity()
+                .map(identity -> {
+                    String roles = String.join(",", identity.roles().stream().sorted().toList());
+                    return resource + "|" + (config.isPerUser() ? roles + "|" + identity.userId() : roles);
+                })
+                .defaultIfEmpty(resource + "|anonymous");
+    }
+
+    private Counter counter(String routeId, String result) {
+        return Counter.builder("gateway.request-collapsing")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private Duration maxWait = Duration.ofMillis(500);
+        private DataSize maxSize = DataSize.ofMegabytes(1);
+        private boolean perUser = true;
+        private String routeId;
+    }
+}
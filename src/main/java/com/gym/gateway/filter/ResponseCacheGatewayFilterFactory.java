@@ -0,0 +1,191 @@
+package com.gym.gateway.filter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.gym.gateway.security.GatewayIdentity;
+import com.gym.gateway.security.IdentityPropagation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Caché de respuestas GET de una ruta. Uso: filters[n]=ResponseCache=<ttl>, <tamaño máximo>[, <perUser>]
+//  - La clave es ruta + query + Accept + Accept-Encoding + roles del JWT y, salvo perUser=false, también el usuario.
+//  - Solo se guardan respuestas 200 que el microservicio no marca como no-store/no-cache (ni private
+//    si la caché se comparte entre usuarios) ni con Vary sobre cabeceras fuera de la clave;
+//    max-age/s-maxage acortan el ttl de la entrada.
+//  - Corre después de LocalRateLimit, así que los aciertos también consumen tokens y llevan sus
+//    cabeceras X-RateLimit-*; al servir un acierto se conservan las cabeceras propias de esta petición.
+//  - Un POST/PUT/PATCH/DELETE correcto por la misma ruta vacía toda su caché, no solo el path escrito:
+//    una escritura en /api/classes/5 también cambia /api/classes y /api/classes/member/{id}, y la
+//    ruta no sabe qué otros paths dependen del recurso.
+//  - gateway.response-cache{route,result=hit|miss|invalidation} permite calcular el ratio de aciertos.
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Set<HttpMethod> WRITE_METHODS = Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+
+    private final IdentityPropagation identityPropagation;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCacheGatewayFilterFactory(IdentityPropagation identityPropagation, MeterRegistry meterRegistry) {
+        super(Config.class);
+        this.identityPropagation = identityPropagation;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "maxSize", "perUser");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        String routeId = config.getRouteId() != null ? config.getRouteId() : "unknown";
+        Cache<String, Entry> cache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSize().toBytes())
+                .weigher((String key, Entry entry) -> key.length() + entry.response().body().length)
+                .expireAfter(new EntryExpiry())
+                .build();
+        Counter hits = counter(routeId, "hit");
+        Counter misses = counter(routeId, "miss");
+        Counter invalidations = counter(routeId, "invalidation");
+        // una sola entrada no puede ocupar más de una décima parte de la caché
+        int maxEntryBytes = (int) Math.min(Integer.MAX_VALUE, config.getMaxSize().toBytes() / 10);
+
+        // antes de NettyWriteResponseFilter para poder capturar el cuerpo que escribe, antes de
+        // RequestCollapsing para que un acierto no espere a nadie y después de LocalRateLimit
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            HttpMethod method = exchange.getRequest().getMethod();
+            if (WRITE_METHODS.contains(method)) {
+                return chain.filter(exchange).then(Mono.fromRunnable(() -> {
+                    HttpStatus status = HttpStatus.resolve(exchange.getResponse().getStatusCode() != null
+                            ? exchange.getResponse().getStatusCode().value() : 0);
+                    if (status != null && status.is2xxSuccessful()) {
+                        cache.invalidateAll();
+                        invalidations.increment();
+                    }
+                }));
+            }
+            if (method != HttpMethod.GET || isNoCacheRequest(exchange.getRequest())) {
+                return chain.filter(exchange);
+            }
+
+            return cacheKey(exchange, config).flatMap(key -> {
+                Entry cached = cache.getIfPresent(key);
+                if (cached != null) {
+                    hits.increment();
+                    exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "HIT");
+                    return cached.response().writeTo(exchange.getResponse());
+                }
+                misses.increment();
+                exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                CapturingResponseDecorator response = new CapturingResponseDecorator(exchange.getResponse(), maxEntryBytes, captured -> {
+                    Duration ttl = ttlOf(captured, config);
+                    if (!ttl.isZero()) {
+                        cache.put(key, new Entry(captured, ttl.toNanos()));
+                    }
+                });
+                return chain.filter(exchange.mutate().response(response).build());
+            });
+        }, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2);
+    }
+
+    private Mono<String> cacheKey(ServerWebExchange exchange, Config config) {
+        String resource = CachedResponse.resourceKey(exchange.getRequest());
+        return identityPropagation.currentIdentity()
+                .map(identity -> resource + "|" + scopeOf(identity, config))
+                .defaultIfEmpty(resource + "|anonymous");
+    }
+
+    private static String scopeOf(GatewayIdentity identity, Config config) {
+        String roles = String.join(",", identity.roles().stream().sorted().toList());
+        return config.isPerUser() ? roles + "|" + identity.userId() : roles;
+    }
+
+    private static boolean isNoCacheRequest(ServerHttpRequest request) {
+        String cacheControl = request.getHeaders().getCacheControl();
+        return cacheControl != null && cacheControl.toLowerCase(Locale.ROOT).contains("no-cache");
+    }
+
+    // Duration.ZERO = no guardar
+    private static Duration ttlOf(CachedResponse response, Config config) {
+        if (response.status().value() != HttpStatus.OK.value() || response.variesBeyondKey()) {
+            return Duration.ZERO;
+        }
+        Duration ttl = config.getTtl();
+        String cacheControl = response.headers().getCacheControl();
+        if (cacheControl == null) {
+            return ttl;
+        }
+        for (String directive : cacheControl.toLowerCase(Locale.ROOT).split(",")) {
+            String value = directive.trim();
+            if (value.equals("no-store") || value.equals("no-cache") || (value.equals("private") && !config.isPerUser())) {
+                return Duration.ZERO;
+            }
+            if (value.startsWith("max-age=") || value.startsWith("s-maxage=")) {
+                try {
+                    Duration maxAge = Duration.ofSeconds(Long.parseLong(value.substring(value.indexOf('=') + 1)));
+                    ttl = maxAge.compareTo(ttl) < 0 ? maxAge : ttl;
+                } catch (NumberFormatException e) {
+                    // directiva mal formada: se mantiene el ttl de la ruta
+                }
+            }
+        }
+        return ttl;
+    }
+
+    private Counter counter(String routeId, String result) {
+        return Counter.builder("gateway.response-cache")
+                .tag("route", routeId)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(CachedResponse response, long ttlNanos) {}
+
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    @Data
+    public static class Config implements HasRouteId {
+        private Duration ttl = Duration.ofMinutes(5);
+        private DataSize maxSize = DataSize.ofMegabytes(10);
+        private boolean perUser = true;
+        private String routeId;
+    }
+}
@@ -0,0 +1,13 @@
+package com.gym.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Coach {
+    private Long id;
+    private String name;
+    private String email;
+    private String specialty;
+}
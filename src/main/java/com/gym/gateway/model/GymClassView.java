@@ -0,0 +1,22 @@
+package com.gym.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// Lectura de una clase para el resumen: solo los campos que usa ClassSummaryDTO. Las listas de
+// inscritos y equipamiento de GymClass las salta Jackson a nivel de token, sin crear ningún Long.
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GymClassView {
+    private Long id;
+    private String name;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime schedule;
+
+    private Integer maxCapacity;
+    private Long coachId;
+}
@@ -0,0 +1,11 @@
+package com.gym.gateway.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+// Lectura de un pago cuando solo se pide totalPayments: ni fechas ni IDs se decodifican
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class PaymentAmount {
+    private Double amount;
+}
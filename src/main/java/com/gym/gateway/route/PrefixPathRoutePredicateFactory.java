@@ -0,0 +1,50 @@
+package com.gym.gateway.route;
+
+import lombok.Data;
+import org.springframework.cloud.gateway.handler.predicate.AbstractRoutePredicateFactory;
+import org.springframework.cloud.gateway.handler.predicate.GatewayPredicate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+// Uso en una ruta: predicates[n]=PrefixPath=/member-microservice/api/members
+// Equivale a Path=<prefijo>/** pero se resuelve con PrefixRoutes: el path se recorre una vez en el trie y
+// cada ruta solo compara su prefijo con el resultado. Si varias rutas cubren el path gana el prefijo más largo.
+@Component
+public class PrefixPathRoutePredicateFactory extends AbstractRoutePredicateFactory<PrefixPathRoutePredicateFactory.Config> {
+
+    private final PrefixRoutes prefixRoutes;
+
+    public PrefixPathRoutePredicateFactory(PrefixRoutes prefixRoutes) {
+        super(Config.class);
+        this.prefixRoutes = prefixRoutes;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("prefix");
+    }
+
+    @Override
+    public Predicate<ServerWebExchange> apply(Config config) {
+        String prefix = PrefixRouteTrie.normalize(config.getPrefix());
+        return new GatewayPredicate() {
+            @Override
+            public boolean test(ServerWebExchange exchange) {
+                return prefixRoutes.matches(exchange, prefix);
+            }
+
+            @Override
+            public String toString() {
+                return "PrefixPath: " + prefix;
+            }
+        };
+    }
+
+    @Data
+    public static class Config {
+        private String prefix;
+    }
+}
@@ -0,0 +1,106 @@
+package com.gym.gateway.route;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Trie inmutable por segmentos de ruta ("/member-microservice/api/members" son tres niveles). Devuelve el
+// prefijo registrado más largo que cubre el path en un solo recorrido, sin importar cuántas rutas haya.
+public final class PrefixRouteTrie {
+
+    private static final PrefixRouteTrie EMPTY = new PrefixRouteTrie(new Node(), Set.of());
+
+    private final Node root;
+    private final Set<String> prefixes;
+
+    private PrefixRouteTrie(Node root, Set<String> prefixes) {
+        this.root = root;
+        this.prefixes = prefixes;
+    }
+
+    public static PrefixRouteTrie empty() {
+        return EMPTY;
+    }
+
+    public static PrefixRouteTrie of(Collection<String> prefixes) {
+        Set<String> normalized = prefixes.stream()
+                .map(PrefixRouteTrie::normalize)
+                .collect(Collectors.toUnmodifiableSet());
+        Node root = new Node();
+        for (String prefix : normalized) {
+            Node node = root;
+            int start = 1;
+            while (start < prefix.length()) {
+                int end = segmentEnd(prefix, start);
+                node = node.children.computeIfAbsent(prefix.substring(start, end), segment -> new Node());
+                start = end + 1;
+            }
+            node.prefix = prefix;
+        }
+        return new PrefixRouteTrie(root, normalized);
+    }
+
+    // Prefijo más largo que cubre el path completo o hasta un '/', o null si ninguno
+    public String longestMatch(String path) {
+        Node node = root;
+        String match = root.prefix;
+        int start = 1;
+        while (start < path.length()) {
+            int end = segmentEnd(path, start);
+            node = node.children.get(path.substring(start, end));
+            if (node == null) {
+                break;
+            }
+            if (node.prefix != null) {
+                match = node.prefix;
+            }
+            start = end + 1;
+        }
+        return match;
+    }
+
+    public boolean contains(String prefix) {
+        return prefixes.contains(prefix);
+    }
+
+    public int size() {
+        return prefixes.size();
+    }
+
+    // "/a/b/", "/a/b/**" y "/a/b" son el mismo prefijo
+    public static String normalize(String prefix) {
+        String normalized = prefix.trim();
+        if (normalized.endsWith("/**")) {
+            normalized = normalized.substring(0, normalized.length() - 3);
+        }
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized.isEmpty() || normalized.charAt(0) == '/' ? normalized : "/" + normalized;
+    }
+
+    public static boolean matches(String path, String prefix) {
+        return path.startsWith(prefix) && (path.length() == prefix.length() || path.charAt(prefix.length()) == '/');
+    }
+
+    // Sustituye el prefijo from por to; el resto del path (y su codificación) no se toca
+    public static String rewrite(String path, String from, String to) {
+        if (!matches(path, from)) {
+            return path;
+        }
+        String rewritten = to + path.substring(from.length());
+        return rewritten.isEmpty() ? "/" : rewritten;
+    }
+
+    private static int segmentEnd(String path, int start) {
+        int end = path.indexOf('/', start);
+        return end < 0 ? path.length() : end;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private String prefix;
+    }
+}
@@ -0,0 +1,102 @@
+package com.gym.gateway.route;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesResultEvent;
+import org.springframework.cloud.gateway.handler.predicate.PredicateDefinition;
+import org.springframework.cloud.gateway.route.RouteDefinitionLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+// Trie con los prefijos de todas las rutas PrefixPath (las de application.properties y las del discovery
+// locator). Se reconstruye aparte y se publica de una vez cada vez que el gateway recarga sus rutas, también
+// cuando Eureka añade o quita un servicio, así que una petición nunca ve un trie a medio construir.
+// Mientras una recarga está en curso el trie puede tener prefijos de rutas ya quitadas (y una ruta más corta
+// que cubre el path respondería false): hasta que se publica el trie nuevo cada ruta compara su prefijo
+// directamente y gana la primera en orden, como con Path.
+@Slf4j
+@Component
+public class PrefixRoutes {
+
+    static final String PREDICATE_NAME = "PrefixPath";
+
+    private static final String MATCH_ATTR = PrefixRoutes.class.getName() + ".match";
+    private static final String NO_MATCH = "\0";
+
+    private final RouteDefinitionLocator routeDefinitionLocator;
+    private volatile PrefixRouteTrie trie = PrefixRouteTrie.empty();
+    private final AtomicLong requestedRefreshes = new AtomicLong();
+    private volatile long builtRefreshes;
+
+    public PrefixRoutes(RouteDefinitionLocator routeDefinitionLocator) {
+        this.routeDefinitionLocator = routeDefinitionLocator;
+    }
+
+    // antes que CachingRouteLocator, que cambia las rutas al recibir este mismo evento
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener
+    public void onRefreshRequested(RefreshRoutesEvent event) {
+        requestedRefreshes.incrementAndGet();
+    }
+
+    @EventListener
+    public void onRoutesRefreshed(RefreshRoutesResultEvent event) {
+        long generation = requestedRefreshes.get();
+        if (!event.isSuccess()) {
+            // las rutas no cambiaron: el trie actual sigue siendo válido
+            publish(trie, generation);
+            return;
+        }
+        routeDefinitionLocator.getRouteDefinitions()
+                .flatMapIterable(definition -> definition.getPredicates())
+                .filter(predicate -> PREDICATE_NAME.equals(predicate.getName()))
+                .map(PrefixRoutes::prefixOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet())
+                .subscribe(prefixes -> publish(PrefixRouteTrie.of(prefixes), generation),
+                        e -> log.warn("Error reconstruyendo el trie de rutas: {}", e.getMessage()));
+    }
+
+    // Una ruta cuyo prefijo aún no está en el trie (rutas recién añadidas) se compara directamente,
+    // igual que todas mientras hay una recarga sin trie publicado
+    boolean matches(ServerWebExchange exchange, String prefix) {
+        PrefixRouteTrie current = trie;
+        String path = exchange.getRequest().getURI().getRawPath();
+        if (builtRefreshes != requestedRefreshes.get() || !current.contains(prefix)) {
+            return PrefixRouteTrie.matches(path, prefix);
+        }
+        // todas las rutas evalúan el mismo recorrido del trie, memorizado en el exchange
+        String match = (String) exchange.getAttributes().computeIfAbsent(MATCH_ATTR, key -> {
+            String longest = current.longestMatch(path);
+            return longest != null ? longest : NO_MATCH;
+        });
+        return prefix.equals(match);
+    }
+
+    private synchronized void publish(PrefixRouteTrie next, long generation) {
+        if (generation < builtRefreshes) {
+            // una recarga posterior ya publicó su trie
+            return;
+        }
+        if (next != trie) {
+            log.info("Trie de rutas reconstruido con {} prefijos", next.size());
+        }
+        trie = next;
+        builtRefreshes = generation;
+    }
+
+    private static String prefixOf(PredicateDefinition predicate) {
+        Map<String, String> args = predicate.getArgs();
+        String prefix = args.containsKey("prefix") ? args.get("prefix")
+                : args.values().stream().findFirst().orElse(null);
+        return prefix != null ? PrefixRouteTrie.normalize(prefix) : null;
+    }
+}
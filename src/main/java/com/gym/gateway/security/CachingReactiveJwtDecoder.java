@@ -0,0 +1,133 @@
+package com.gym.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Decodificador que evita repetir la verificación de firma de los tokens que ya se validaron.
+// La clave es el SHA-256 del token y la entrada caduca poco antes del exp del token; todo se
+// invalida cuando rota el JWK set.
+public class CachingReactiveJwtDecoder implements ReactiveJwtDecoder {
+
+    private final ReactiveJwtDecoder delegate;
+    private final Duration expirySkew;
+    private final Cache<String, Jwt> verifiedTokens;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer verification;
+
+    public CachingReactiveJwtDecoder(ReactiveJwtDecoder delegate, long maxSize, Duration maxTtl, Duration expirySkew,
+                                     MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.expirySkew = expirySkew;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new VerifiedTokenExpiry(maxTtl))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "verifiedJwt");
+        this.hits = Counter.builder("gateway.jwt.decode")
+                .tag("result", "hit")
+                .description("Tokens servidos desde la caché de JWT verificados")
+                .register(meterRegistry);
+        this.misses = Counter.builder("gateway.jwt.decode")
+                .tag("result", "miss")
+                .description("Tokens que requirieron verificación de firma")
+                .register(meterRegistry);
+        this.verification = Timer.builder("gateway.jwt.verification")
+                .description("Coste de decodificar y verificar un JWT contra el JWK set")
+                .register(meterRegistry);
+        // tiempo de verificación ahorrado = aciertos x coste medio de una verificación
+        Gauge.builder("gateway.jwt.verification.saved", this,
+                        decoder -> decoder.hits.count() * decoder.verification.mean(TimeUnit.SECONDS))
+                .baseUnit("seconds")
+                .description("Tiempo de verificación de firma ahorrado por la caché")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Jwt> decode(String token) throws JwtException {
+        String key = hash(token);
+        Jwt cached = verifiedTokens.getIfPresent(key);
+        if (cached != null && isUsable(cached)) {
+            hits.increment();
+            return Mono.just(cached);
+        }
+
+        misses.increment();
+        long start = System.nanoTime();
+        return delegate.decode(token)
+                .doOnNext(jwt -> {
+                    verification.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    if (isUsable(jwt)) {
+                        verifiedTokens.put(key, jwt);
+                    }
+                });
+    }
+
+    public void invalidateAll() {
+        verifiedTokens.invalidateAll();
+    }
+
+    private boolean isUsable(Jwt jwt) {
+        return jwt.getExpiresAt() == null || Instant.now().plus(expirySkew).isBefore(jwt.getExpiresAt());
+    }
+
+    // también la usa IdentityPropagation, para no guardar tokens en claro como claves de caché
+    static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private final class VerifiedTokenExpiry implements Expiry<String, Jwt> {
+
+        private final long maxTtlNanos;
+
+        private VerifiedTokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+            if (jwt.getExpiresAt() == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiry = Duration.between(Instant.now(), jwt.getExpiresAt().minus(expirySkew)).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
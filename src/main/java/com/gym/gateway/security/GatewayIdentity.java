@@ -0,0 +1,36 @@
+package com.gym.gateway.security;
+
+import org.springframework.http.HttpHeaders;
+
+import java.time.Instant;
+import java.util.List;
+
+// Cabeceras de identidad que el gateway propaga a los microservicios, precalculadas una vez por token
+public record GatewayIdentity(String authorization, String userId, String username, String email,
+                              List<String> roles, String rolesHeader, Instant expiresAt) {
+
+    public static final String USER_ID_HEADER = "X-User-Id";
+    public static final String USER_NAME_HEADER = "X-User-Name";
+    public static final String USER_EMAIL_HEADER = "X-User-Email";
+    public static final String USER_ROLES_HEADER = "X-User-Roles";
+    public static final String AUTH_SOURCE_HEADER = "X-Auth-Source";
+    public static final String AUTH_SOURCE = "gateway";
+
+    public static final List<String> IDENTITY_HEADERS = List.of(
+            USER_ID_HEADER, USER_NAME_HEADER, USER_EMAIL_HEADER, USER_ROLES_HEADER, AUTH_SOURCE_HEADER);
+
+    // Identidad de las llamadas internas del gateway cuando no hay JWT en el contexto
+    public static final GatewayIdentity SYSTEM = new GatewayIdentity(
+            "", "system", "gateway", "system@gym.internal", List.of("ROLE_SYSTEM"), "ROLE_SYSTEM", null);
+
+    public void applyTo(HttpHeaders headers) {
+        if (!authorization.isEmpty()) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        headers.set(AUTH_SOURCE_HEADER, AUTH_SOURCE);
+        headers.set(USER_ID_HEADER, userId);
+        headers.set(USER_NAME_HEADER, username);
+        headers.set(USER_EMAIL_HEADER, email);
+        headers.set(USER_ROLES_HEADER, rolesHeader);
+    }
+}
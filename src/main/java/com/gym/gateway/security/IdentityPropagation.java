@@ -0,0 +1,150 @@
+package com.gym.gateway.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Único punto donde los claims del JWT se convierten en cabeceras X-User-*. Lo usan el filtro global,
+// JwtTokenRelay y el cliente de la agregación; la identidad se calcula una vez por token y se
+// memoriza hasta su exp, con el SHA-256 del token como clave (igual que CachingReactiveJwtDecoder).
+@Component
+public class IdentityPropagation {
+
+    private static final Logger log = LoggerFactory.getLogger(IdentityPropagation.class);
+
+    private static final String DEFAULT_ROLE = "ROLE_MEMBER";
+
+    private final Cache<String, GatewayIdentity> identities;
+
+    public IdentityPropagation(@Value("${gateway.identity.cache.max-size:50000}") long maxSize,
+                               @Value("${gateway.identity.cache.max-ttl:5m}") Duration maxTtl) {
+        this.identities = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(maxTtl))
+                .build();
+    }
+
+    public Mono<GatewayIdentity> currentIdentity() {
+        return ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(authentication -> identityOf(((JwtAuthenticationToken) authentication).getToken()));
+    }
+
+    public GatewayIdentity identityOf(Jwt jwt) {
+        return identities.get(CachingReactiveJwtDecoder.hash(jwt.getTokenValue()), tokenHash -> buildIdentity(jwt));
+    }
+
+    // Filtro compartido por las rutas del gateway: añade las cabeceras de identidad si hay JWT y, si no,
+    // elimina las que pudiera traer el cliente para que no se puedan suplantar
+    public Mono<Void> relay(ServerWebExchange exchange, GatewayFilterChain chain) {
+        return currentIdentity()
+                .map(identity -> withIdentity(exchange, identity))
+                .onErrorResume(e -> {
+                    log.warn("Error procesando el JWT en el gateway: {}", e.getMessage());
+                    return Mono.empty();
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> withoutIdentity(exchange)))
+                .flatMap(chain::filter);
+    }
+
+    private ServerWebExchange withIdentity(ServerWebExchange exchange, GatewayIdentity identity) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(identity::applyTo)
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private ServerWebExchange withoutIdentity(ServerWebExchange exchange) {
+        boolean hasIdentityHeaders = GatewayIdentity.IDENTITY_HEADERS.stream()
+                .anyMatch(exchange.getRequest().getHeaders()::containsKey);
+        if (!hasIdentityHeaders) {
+            return exchange;
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> GatewayIdentity.IDENTITY_HEADERS.forEach(headers::remove))
+                .build();
+        return exchange.mutate().request(request).build();
+    }
+
+    private GatewayIdentity buildIdentity(Jwt jwt) {
+        List<String> roles = extractRoles(jwt);
+        return new GatewayIdentity(
+                "Bearer " + jwt.getTokenValue(),
+                valueOrEmpty(jwt.getClaimAsString("sub")),
+                valueOrEmpty(jwt.getClaimAsString("preferred_username")),
+                valueOrEmpty(jwt.getClaimAsString("email")),
+                roles,
+                String.join(",", roles),
+                jwt.getExpiresAt());
+    }
+
+    // Keycloak publica los roles en realm_access.roles; algunos clientes los mapean además a "roles"
+    private List<String> extractRoles(Jwt jwt) {
+        Set<String> roles = new LinkedHashSet<>();
+        try {
+            Object realmAccess = jwt.getClaim("realm_access");
+            if (realmAccess instanceof Map<?, ?> realmAccessMap && realmAccessMap.get("roles") instanceof List<?> realmRoles) {
+                realmRoles.forEach(role -> roles.add(String.valueOf(role)));
+            }
+            List<String> rolesClaim = jwt.getClaimAsStringList("roles");
+            if (rolesClaim != null) {
+                roles.addAll(rolesClaim);
+            }
+        } catch (Exception e) {
+            log.warn("Error extrayendo roles del JWT: {}", e.getMessage());
+        }
+        return roles.isEmpty() ? List.of(DEFAULT_ROLE) : List.copyOf(roles);
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static final class TokenExpiry implements Expiry<String, GatewayIdentity> {
+
+        private final long maxTtlNanos;
+
+        private TokenExpiry(Duration maxTtl) {
+            this.maxTtlNanos = maxTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String tokenHash, GatewayIdentity identity, long currentTime) {
+            if (identity.expiresAt() == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiry = Duration.between(Instant.now(), identity.expiresAt()).toNanos();
+            return Math.max(0, Math.min(maxTtlNanos, untilExpiry));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, GatewayIdentity identity, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, GatewayIdentity identity, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.gym.gateway.security;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+// JWK set de Keycloak cacheado localmente. Se refresca cada refresh-interval o cuando llega un kid
+// desconocido (como mucho una vez cada min-refresh-interval) y avisa a los listeners si cambian las claves.
+// El refresco periódico se hace en segundo plano sirviendo el set cacheado; solo un kid desconocido espera a
+// la descarga, y si Keycloak no responde se sigue con el set cacheado en lugar de rechazar tokens válidos.
+@Component
+public class JwkSetSource {
+
+    private static final Logger log = LoggerFactory.getLogger(JwkSetSource.class);
+
+    private final WebClient webClient;
+    private final String jwkSetUri;
+    private final long refreshIntervalNanos;
+    private final long minRefreshIntervalNanos;
+
+    private final AtomicReference<CachedJwkSet> current = new AtomicReference<>();
+    private final AtomicReference<Mono<JWKSet>> refreshInFlight = new AtomicReference<>();
+    private volatile long lastAttemptNanos;
+    private final List<Runnable> rotationListeners = new CopyOnWriteArrayList<>();
+
+    public JwkSetSource(WebClient.Builder webClientBuilder,
+                        @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}") String jwkSetUri,
+                        @Value("${gateway.jwt.jwks.refresh-interval:5m}") Duration refreshInterval,
+                        @Value("${gateway.jwt.jwks.min-refresh-interval:30s}") Duration minRefreshInterval) {
+        this.webClient = webClientBuilder.build();
+        this.jwkSetUri = jwkSetUri;
+        this.refreshIntervalNanos = refreshInterval.toNanos();
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+    }
+
+    public void onRotation(Runnable listener) {
+        rotationListeners.add(listener);
+    }
+
+    public Flux<JWK> select(SignedJWT signedJwt) {
+        JWKSelector selector = new JWKSelector(JWKMatcher.forJWSHeader(signedJwt.getHeader()));
+        String keyId = signedJwt.getHeader().getKeyID();
+        return jwkSet(keyId).flatMapIterable(selector::select);
+    }
+
+    public Mono<JWKSet> jwkSet() {
+        return jwkSet(null);
+    }
+
+    private Mono<JWKSet> jwkSet(String keyId) {
+        CachedJwkSet cached = current.get();
+        long now = System.nanoTime();
+        if (cached == null) {
+            return refresh();
+        }
+        long age = now - cached.fetchedAt();
+        // tras un refresco fallido no se vuelve a intentar hasta pasado min-refresh-interval
+        boolean canRefresh = age > minRefreshIntervalNanos && now - lastAttemptNanos > minRefreshIntervalNanos;
+        boolean unknownKey = keyId != null && cached.jwkSet().getKeyByKeyId(keyId) == null;
+        if (unknownKey && canRefresh) {
+            return refresh().onErrorResume(e -> {
+                log.warn("⚠️ No se pudo refrescar el JWK set de {}, se usa el cacheado: {}", jwkSetUri, e.getMessage());
+                return Mono.just(cached.jwkSet());
+            });
+        }
+        if (age > refreshIntervalNanos && canRefresh) {
+            refresh().subscribe(jwkSet -> { },
+                    e -> log.warn("⚠️ No se pudo refrescar el JWK set de {}: {}", jwkSetUri, e.getMessage()));
+        }
+        return Mono.just(cached.jwkSet());
+    }
+
+    private Mono<JWKSet> refresh() {
+        Mono<JWKSet> inFlight = refreshInFlight.get();
+        if (inFlight != null) {
+            return inFlight;
+        }
+        lastAttemptNanos = System.nanoTime();
+        Mono<JWKSet> fetch = webClient.get()
+                .uri(jwkSetUri)
+                .retrieve()
+                .bodyToMono(String.class)
+                .map(this::parse)
+                .doOnNext(this::update)
+                .doFinally(signal -> refreshInFlight.set(null))
+                .cache();
+        return refreshInFlight.compareAndSet(null, fetch) ? fetch : refresh();
+    }
+
+    private JWKSet parse(String body) {
+        try {
+            return JWKSet.parse(body);
+        } catch (ParseException e) {
+            throw new IllegalStateException("JWK set inválido en " + jwkSetUri, e);
+        }
+    }
+
+    private void update(JWKSet jwkSet) {
+        CachedJwkSet previous = current.getAndSet(new CachedJwkSet(jwkSet, System.nanoTime()));
+        if (previous != null && !keyIds(previous.jwkSet()).equals(keyIds(jwkSet))) {
+            log.info("🔑 El JWK set de {} ha rotado, invalidando tokens verificados", jwkSetUri);
+            rotationListeners.forEach(Runnable::run);
+        }
+    }
+
+    private static Set<String> keyIds(JWKSet jwkSet) {
+        return jwkSet.getKeys().stream()
+                .map(JWK::getKeyID)
+                .collect(Collectors.toSet());
+    }
+
+    private record CachedJwkSet(JWKSet jwkSet, long fetchedAt) {}
+}
@@ -0,0 +1,128 @@
+package com.gym.gateway.service;
+
+import com.gym.gateway.dto.MemberSummaryDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Métricas de la agregación:
+//  - gateway.aggregation.leg{service,outcome,instance}: latencia de cada llamada a un microservicio
+//  - gateway.aggregation.fallback{service}: llamadas fallidas sustituidas por un valor de respaldo
+//  - gateway.aggregation.summary{outcome}: agregación completa (complete, stale, degraded o not_found)
+//  - gateway.aggregation.export.members{status}: miembros exportados (ok o error); su ritmo es el throughput
+//  - gateway.aggregation.export.active: exportaciones en curso
+@Component
+public class AggregationMetrics {
+
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_NOT_FOUND = "not_found";
+    static final String OUTCOME_CLIENT_ERROR = "client_error";
+    static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger activeExports;
+
+    public AggregationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.activeExports = meterRegistry.gauge("gateway.aggregation.export.active", new AtomicInteger());
+    }
+
+    public <T> Mono<T> timeLeg(String service, ServiceInstance instance, Mono<T> call) {
+        return Mono.deferContextual(ctx -> {
+            AggregationTrace trace = ctx.getOrDefault(AggregationTrace.class, null);
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(value -> recordLeg(service, instance, start, OUTCOME_SUCCESS, trace))
+                    .doOnError(e -> recordLeg(service, instance, start, outcomeOf(e), trace));
+        });
+    }
+
+    public <T> Flux<T> timeLeg(String service, ServiceInstance instance, Flux<T> call) {
+        return Flux.deferContextual(ctx -> {
+            AggregationTrace trace = ctx.getOrDefault(AggregationTrace.class, null);
+            long start = System.nanoTime();
+            return call
+                    .doOnComplete(() -> recordLeg(service, instance, start, OUTCOME_SUCCESS, trace))
+                    .doOnError(e -> recordLeg(service, instance, start, outcomeOf(e), trace));
+        });
+    }
+
+    // Sustituye una llamada fallida por su valor de respaldo contándolo aparte de los éxitos
+    public <T> Mono<T> fallback(String service, T value) {
+        return this.<T>fallbackEmpty(service).defaultIfEmpty(value);
+    }
+
+    // Igual que fallback, para secciones que sin respuesta simplemente se omiten
+    public <T> Mono<T> fallbackEmpty(String service) {
+        return Mono.deferContextual(ctx -> {
+            Counter.builder("gateway.aggregation.fallback")
+                    .tag("service", service)
+                    .register(meterRegistry)
+                    .increment();
+            AggregationTrace trace = ctx.getOrDefault(AggregationTrace.class, null);
+            if (trace != null) {
+                trace.markDegraded();
+            }
+            return Mono.empty();
+        });
+    }
+
+    public void recordSummary(long startNanos, AggregationTrace trace, MemberSummaryDTO summary) {
+        String outcome = summary.getId() == null ? OUTCOME_NOT_FOUND
+                : trace.isDegraded() ? "degraded"
+                : Boolean.TRUE.equals(summary.getStale()) ? "stale"
+                : "complete";
+        Timer.builder("gateway.aggregation.summary")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void exportStarted() {
+        activeExports.incrementAndGet();
+    }
+
+    public void exportFinished() {
+        activeExports.decrementAndGet();
+    }
+
+    public void recordExported(String status) {
+        Counter.builder("gateway.aggregation.export.members")
+                .tag("status", status.toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void recordLeg(String service, ServiceInstance instance, long startNanos, String outcome, AggregationTrace trace) {
+        long duration = System.nanoTime() - startNanos;
+        Timer.builder("gateway.aggregation.leg")
+                .tag("service", service)
+                .tag("outcome", outcome)
+                .tag("instance", instance.getHost() + ":" + instance.getPort())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(duration, TimeUnit.NANOSECONDS);
+        if (trace != null) {
+            trace.recordLeg(service, duration, outcome);
+        }
+    }
+
+    private static String outcomeOf(Throwable error) {
+        if (error instanceof WebClientResponseException.NotFound) {
+            return OUTCOME_NOT_FOUND;
+        }
+        if (error instanceof WebClientResponseException responseError && responseError.getStatusCode().is4xxClientError()) {
+            return OUTCOME_CLIENT_ERROR;
+        }
+        return OUTCOME_ERROR;
+    }
+}
@@ -0,0 +1,78 @@
+package com.gym.gateway.service;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// Tiempos de cada llamada de una agregación. Viaja en el Context de Reactor para que el controlador
+// pueda devolverlos en la cabecera Server-Timing; las llamadas terminan en hilos distintos.
+public class AggregationTrace {
+
+    private final Queue<Leg> legs = new ConcurrentLinkedQueue<>();
+    private final Set<SummaryField> staleSections = Collections.synchronizedSet(EnumSet.noneOf(SummaryField.class));
+    private volatile boolean degraded;
+    private volatile boolean coalesced;
+
+    void recordLeg(String service, long durationNanos, String outcome) {
+        legs.add(new Leg(service, durationNanos, outcome));
+    }
+
+    void markDegraded() {
+        degraded = true;
+    }
+
+    // El resumen llegó de la agregación en curso de otra petición (MemberSummaryCache)
+    void markCoalesced() {
+        coalesced = true;
+    }
+
+    void markStale(SummaryField section) {
+        staleSections.add(section);
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    public boolean isStale(SummaryField section) {
+        return staleSections.contains(section);
+    }
+
+    // Nombres de las secciones servidas desde la última respuesta correcta, en el orden de SummaryField
+    public List<String> staleSections() {
+        synchronized (staleSections) {
+            return staleSections.stream().map(SummaryField::getParameterName).toList();
+        }
+    }
+
+    // p. ej. member-microservice;dur=12.1, payment-microservice;dur=80.4;desc="error", total;dur=81.0
+    // Sin llamadas propias: cache;desc="hit", o cache;desc="coalesced" si esperó a la agregación de otra petición
+    public String toServerTiming(long totalNanos) {
+        StringBuilder header = new StringBuilder();
+        if (legs.isEmpty()) {
+            header.append("cache;desc=\"").append(coalesced ? "coalesced" : "hit").append("\", ");
+        }
+        for (Leg leg : legs) {
+            header.append(leg.service()).append(";dur=").append(millis(leg.durationNanos()));
+            if (!AggregationMetrics.OUTCOME_SUCCESS.equals(leg.outcome())) {
+                header.append(";desc=\"").append(leg.outcome()).append('"');
+            }
+            header.append(", ");
+        }
+        if (!staleSections.isEmpty()) {
+            header.append("stale;desc=\"").append(String.join(",", staleSections())).append("\", ");
+        }
+        return header.append("total;dur=").append(millis(totalNanos)).toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private record Leg(String service, long durationNanos, String outcome) {}
+}
@@ -0,0 +1,39 @@
+package com.gym.gateway.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gym.gateway.dto.CoachSummaryDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+// Los coaches cambian muy poco y son los mismos para todos los miembros: se guardan por ID durante
+// aggregation.coaches.cache.ttl. Las búsquedas concurrentes del mismo coach comparten la llamada.
+@Component
+public class CoachCache {
+
+    private final AsyncCache<Long, CoachSummaryDTO> cache;
+
+    public CoachCache(@Value("${aggregation.coaches.cache.max-size:1000}") long maxSize,
+                      @Value("${aggregation.coaches.cache.ttl:10m}") Duration ttl,
+                      MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "coaches");
+    }
+
+    // Un coach no encontrado o con error se emite vacío y no se guarda
+    public Mono<CoachSummaryDTO> get(Long coachId, Supplier<Mono<CoachSummaryDTO>> loader) {
+        return Mono.deferContextual(ctx -> Mono.fromFuture(() -> cache.get(coachId, (id, executor) -> loader.get()
+                .contextWrite(ctx)
+                .toFuture()), true));
+    }
+}
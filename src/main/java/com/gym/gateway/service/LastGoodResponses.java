@@ -0,0 +1,122 @@
+package com.gym.gateway.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gym.gateway.security.GatewayIdentity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+// Última respuesta correcta de cada sección por miembro y ámbito del llamante (stale-while-revalidate).
+//  - Dentro de fresh-for se sirve la respuesta guardada y se refresca en segundo plano.
+//  - Si la llamada falla o vence su timeout se sirve la guardada (hasta max-stale) marcando la sección
+//    como obsoleta en la AggregationTrace; sin respuesta guardada se usa el respaldo de la sección.
+// Así un reinicio o un despliegue de un microservicio no se convierte en 404 falsos ni en totales a cero.
+@Component
+public class LastGoodResponses {
+
+    private static final Logger log = LoggerFactory.getLogger(LastGoodResponses.class);
+    private static final String BYPASS = LastGoodResponses.class.getName() + ".bypass";
+
+    private final boolean enabled;
+    private final long freshForNanos;
+    private final MemberSummaryCache memberSummaryCache;
+    private final MeterRegistry meterRegistry;
+    private final Cache<LegKey, StoredResponse> responses;
+    private final Set<LegKey> refreshing = ConcurrentHashMap.newKeySet();
+
+    public LastGoodResponses(@Value("${aggregation.stale.enabled:true}") boolean enabled,
+                             @Value("${aggregation.stale.max-size:50000}") long maxSize,
+                             @Value("${aggregation.stale.fresh-for:5s}") Duration freshFor,
+                             @Value("${aggregation.stale.max-stale:10m}") Duration maxStale,
+                             MemberSummaryCache memberSummaryCache,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.freshForNanos = freshFor.toNanos();
+        this.memberSummaryCache = memberSummaryCache;
+        this.meterRegistry = meterRegistry;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStale)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "lastGoodResponses");
+    }
+
+    // Las exportaciones masivas no leen ni llenan el almacén, que es para el tráfico interactivo
+    static <T> Mono<T> bypass(Mono<T> aggregation) {
+        return aggregation.contextWrite(Context.of(BYPASS, true));
+    }
+
+    public <T> Mono<T> fetch(SummaryField section, Long memberId, GatewayIdentity identity,
+                             Mono<T> live, Function<Throwable, Mono<T>> fallback) {
+        if (!enabled) {
+            return live.onErrorResume(fallback);
+        }
+        LegKey key = new LegKey(section, memberId, memberSummaryCache.scopeOf(identity.userId(), identity.roles()));
+        Mono<T> liveAndStore = live.doOnNext(value -> responses.put(key, new StoredResponse(value, System.nanoTime())));
+
+        return Mono.deferContextual(ctx -> {
+            if (ctx.hasKey(BYPASS)) {
+                return live.onErrorResume(fallback);
+            }
+            StoredResponse stored = responses.getIfPresent(key);
+            if (stored != null && System.nanoTime() - stored.storedAt() < freshForNanos) {
+                revalidate(key, liveAndStore);
+                return Mono.just(stored.<T>value());
+            }
+            return liveAndStore.onErrorResume(error -> serveStale(key, error, fallback));
+        });
+    }
+
+    // Una sola revalidación en vuelo por clave; su resultado solo actualiza el almacén
+    private <T> void revalidate(LegKey key, Mono<T> liveAndStore) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        liveAndStore
+                .doFinally(signal -> refreshing.remove(key))
+                .subscribe(value -> { }, error -> log.debug("Revalidación de {} del miembro {} fallida: {}",
+                        key.section().getParameterName(), key.memberId(), error.getMessage()));
+    }
+
+    private <T> Mono<T> serveStale(LegKey key, Throwable error, Function<Throwable, Mono<T>> fallback) {
+        StoredResponse stored = responses.getIfPresent(key);
+        if (stored == null) {
+            return fallback.apply(error);
+        }
+        log.warn("⚠️ Sirviendo {} obsoleto del miembro {} tras error: {}",
+                key.section().getParameterName(), key.memberId(), error.getMessage());
+        return Mono.deferContextual(ctx -> {
+            Counter.builder("gateway.aggregation.stale")
+                    .tag("section", key.section().getParameterName())
+                    .register(meterRegistry)
+                    .increment();
+            AggregationTrace trace = ctx.getOrDefault(AggregationTrace.class, null);
+            if (trace != null) {
+                trace.markStale(key.section());
+            }
+            return Mono.just(stored.<T>value());
+        });
+    }
+
+    private record LegKey(SummaryField section, Long memberId, String scope) {}
+
+    private record StoredResponse(Object response, long storedAt) {
+        @SuppressWarnings("unchecked")
+        <T> T value() {
+            return (T) response;
+        }
+    }
+}
@@ -1,158 +1,567 @@
 package com.gym.gateway.service;
 
+import com.gym.gateway.client.AdaptiveConcurrencyLimiter;
+import com.gym.gateway.client.DownstreamWebClients;
+import com.gym.gateway.client.HedgedRequests;
+import com.gym.gateway.client.ServiceInstanceResolver;
 import com.gym.gateway.dto.ClassSummaryDTO;
+import com.gym.gateway.dto.CoachSummaryDTO;
+import com.gym.gateway.dto.MemberExportRecordDTO;
 import com.gym.gateway.dto.MemberSummaryDTO;
+import com.gym.gateway.dto.MemberSummaryEventDTO;
+import com.gym.gateway.dto.MemberSummaryResultDTO;
 import com.gym.gateway.dto.PaymentSummaryDTO;
+import com.gym.gateway.exception.ServiceOverloadedException;
 import com.gym.gateway.model.Member;
-import com.gym.gateway.model.GymClass;
+import com.gym.gateway.model.Coach;
+import com.gym.gateway.model.GymClassView;
 import com.gym.gateway.model.Payment;
+import com.gym.gateway.model.PaymentAmount;
+import com.gym.gateway.security.GatewayIdentity;
+import com.gym.gateway.security.IdentityPropagation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
-import org.springframework.security.core.context.ReactiveSecurityContextHolder;
-import org.springframework.security.oauth2.jwt.Jwt;
-import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.cloud.client.circuitbreaker.ReactiveCircuitBreakerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.retry.Retry;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 public class MemberAggregationService {
 
     private static final Logger log = LoggerFactory.getLogger(MemberAggregationService.class);
 
+    private static final String MEMBER_SERVICE = "member-microservice";
+    private static final String CLASS_SERVICE = "class-microservice";
+    private static final String PAYMENT_SERVICE = "payment-microservice";
+    private static final String COACH_SERVICE = "coach-microservice";
+
+    @Autowired
+    private ServiceInstanceResolver serviceInstanceResolver;
+
+    @Autowired
+    private DownstreamWebClients downstreamWebClients;
+
+    @Autowired
+    private HedgedRequests hedgedRequests;
+
     @Autowired
-    private DiscoveryClient discoveryClient;
+    private ReactiveCircuitBreakerFactory<?, ?> circuitBreakerFactory;
 
-    private final WebClient webClient = WebClient.builder().build();
+    @Autowired
+    private AdaptiveConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    private IdentityPropagation identityPropagation;
+
+    @Autowired
+    private MemberSummaryCache memberSummaryCache;
+
+    @Autowired
+    private AggregationMetrics aggregationMetrics;
+
+    @Autowired
+    private LastGoodResponses lastGoodResponses;
+
+    @Autowired
+    private CoachCache coachCache;
+
+    @Value("${aggregation.batch.max-size:200}")
+    private int batchMaxSize;
+
+    @Value("${aggregation.batch.concurrency:16}")
+    private int batchConcurrency;
+
+    @Value("${aggregation.stream.payment-chunk-size:100}")
+    private int paymentChunkSize;
+
+    @Value("${aggregation.coaches.concurrency:8}")
+    private int coachConcurrency;
+
+    @Value("${aggregation.export.page-size:100}")
+    private int exportPageSize;
+
+    @Value("${aggregation.export.concurrency:8}")
+    private int exportConcurrency;
+
+    @Value("${aggregation.export.page-retries:3}")
+    private int exportPageRetries;
+
+    @Value("${aggregation.export.progress-interval:1000}")
+    private long exportProgressInterval;
 
     public Mono<MemberSummaryDTO> getMemberSummary(Long memberId) {
-        return getJwtInfo()
-                .flatMap(jwtInfo -> Mono.zip(
-                        getMemberData(memberId, jwtInfo),
-                        getMemberClasses(memberId, jwtInfo),
-                        getMemberPayments(memberId, jwtInfo)
-                ))
-                .map(tuple -> {
-                    Member member = tuple.getT1();
-                    List<GymClass> classes = tuple.getT2();
-                    List<Payment> payments = tuple.getT3();
-                    return buildMemberSummary(member, classes, payments);
-                })
-                .doOnError(err -> log.error("❌ Error agregando información de miembro {}", memberId, err))
-                .onErrorReturn(new MemberSummaryDTO()); // evita que propague el 500
-    }
-
-    private Mono<JwtInfo> getJwtInfo() {
-        return ReactiveSecurityContextHolder.getContext()
-                .map(ctx -> ctx.getAuthentication())
-                .cast(JwtAuthenticationToken.class)
-                .map(jwtAuth -> {
-                    Jwt jwt = jwtAuth.getToken();
-                    String userId = jwt.getClaimAsString("sub");
-                    String username = jwt.getClaimAsString("preferred_username");
-                    String email = jwt.getClaimAsString("email");
-                    
-                    List<String> roles = jwt.getClaimAsStringList("roles");
-                    if (roles == null || roles.isEmpty()) {
-                        roles = List.of("ROLE_MEMBER");
-                    }    
-
-                    return new JwtInfo("Bearer " + jwt.getTokenValue(), userId, username, email, roles);
-                })
-                .onErrorResume(e -> {
-                    log.warn("⚠️ No se encontró JWT en contexto, usando modo interno del Gateway");
-                    return Mono.just(new JwtInfo("", "system", "gateway", "system@gym.internal", List.of("ROLE_SYSTEM")));
+        return getMemberSummary(memberId, SummaryField.ALL);
+    }
+
+    public Mono<MemberSummaryDTO> getMemberSummary(Long memberId, Set<SummaryField> fields) {
+        return getIdentity()
+                .flatMap(identity -> memberSummaryCache.get(memberId, fields, identity.userId(), identity.roles(),
+                        () -> aggregate(memberId, identity, fields)))
+                .defaultIfEmpty(new MemberSummaryDTO())
+                // Solo un 404 real de member-microservice llega como resumen vacío; cualquier otro fallo
+                // se propaga para que el controlador responda 502/503 en lugar de "no encontrado"
+                .doOnError(err -> log.error("❌ Error agregando información de miembro {}", memberId, err));
+    }
+
+    // El JWT se resuelve una vez por lote; cada miembro hace una llamada por servicio,
+    // así que batchConcurrency acota también las llamadas en vuelo a cada servicio.
+    // Los IDs llegan ya sin nulos ni duplicados (el controlador los filtra para validar el tamaño del lote).
+    // Un miembro cuyo member-microservice no responde sale como ERROR; NOT_FOUND queda para un 404 real
+    public Flux<MemberSummaryResultDTO> getMemberSummaries(List<Long> memberIds) {
+        return getIdentity()
+                .flatMapMany(identity -> Flux.fromIterable(memberIds)
+                        .flatMapSequential(memberId -> memberSummaryCache.get(memberId, SummaryField.ALL, identity.userId(), identity.roles(),
+                                        () -> aggregate(memberId, identity, SummaryField.ALL))
+                                .map(summary -> MemberSummaryResultDTO.ok(memberId, summary))
+                                .defaultIfEmpty(MemberSummaryResultDTO.notFound(memberId))
+                                .onErrorResume(err -> {
+                                    log.warn("❌ Error agregando información de miembro {} en lote: {}", memberId, err.getMessage());
+                                    return Mono.just(MemberSummaryResultDTO.error(memberId, err.getMessage()));
+                                }), batchConcurrency));
+    }
+
+    // Cada sección se emite en cuanto responde su microservicio y los pagos salen por bloques,
+    // así que ni se espera al backend más lento ni se mantiene el historial completo en memoria
+    public Flux<MemberSummaryEventDTO> streamMemberSummary(Long memberId) {
+        return getIdentity().flatMapMany(identity -> {
+            AtomicInteger totalClasses = new AtomicInteger();
+            DoubleAdder totalPayments = new DoubleAdder();
+            AggregationTrace trace = new AggregationTrace();
+
+            Mono<MemberSummaryEventDTO> memberSection = getMemberData(memberId, identity)
+                    .contextWrite(Context.of(AggregationTrace.class, trace))
+                    .map(member -> {
+                        MemberSummaryEventDTO event = MemberSummaryEventDTO.of(MemberSummaryEventDTO.TYPE_MEMBER, memberId);
+                        if (trace.isStale(SummaryField.MEMBER)) {
+                            event.setStale(true);
+                        }
+                        if (member.getId() == null) {
+                            event.setError("Miembro no encontrado");
+                            return event;
+                        }
+                        event.setName(member.getName());
+                        event.setEmail(member.getEmail());
+                        event.setRegistrationDate(member.getRegistrationDate());
+                        return event;
+                    })
+                    .onErrorResume(e -> Mono.just(sectionError(MemberSummaryEventDTO.TYPE_MEMBER, memberId, e)));
+
+            Mono<MemberSummaryEventDTO> classesSection = fetchMemberClasses(memberId, identity)
+                    .map(this::convertToClassSummaryDTO)
+                    .collectList()
+                    .flatMap(classes -> enrichWithCoaches(classes, identity))
+                    .map(classes -> {
+                        totalClasses.addAndGet(classes.size());
+                        MemberSummaryEventDTO event = MemberSummaryEventDTO.of(MemberSummaryEventDTO.TYPE_CLASSES, memberId);
+                        event.setClasses(classes);
+                        return event;
+                    })
+                    .onErrorResume(e -> Mono.just(sectionError(MemberSummaryEventDTO.TYPE_CLASSES, memberId, e)));
+
+            Flux<MemberSummaryEventDTO> paymentsSection = fetchMemberPayments(memberId, identity)
+                    .map(this::convertToPaymentSummaryDTO)
+                    .buffer(paymentChunkSize)
+                    .map(payments -> {
+                        payments.stream()
+                                .filter(payment -> payment.getAmount() != null)
+                                .forEach(payment -> totalPayments.add(payment.getAmount()));
+                        MemberSummaryEventDTO event = MemberSummaryEventDTO.of(MemberSummaryEventDTO.TYPE_PAYMENTS, memberId);
+                        event.setPayments(payments);
+                        return event;
+                    })
+                    .onErrorResume(e -> Mono.just(sectionError(MemberSummaryEventDTO.TYPE_PAYMENTS, memberId, e)));
+
+            Mono<MemberSummaryEventDTO> totals = Mono.fromSupplier(() -> {
+                MemberSummaryEventDTO event = MemberSummaryEventDTO.of(MemberSummaryEventDTO.TYPE_TOTALS, memberId);
+                event.setTotalClasses(totalClasses.get());
+                event.setTotalPayments(totalPayments.sum());
+                return event;
+            });
+
+            return Flux.merge(memberSection, classesSection, paymentsSection).concatWith(totals);
+        });
+    }
+
+    // Exportación de todos los miembros: recorre member-microservice por páginas y agrega cada miembro con
+    // como mucho exportConcurrency en vuelo, reutilizando el miembro de la página en lugar de volver a pedirlo.
+    // Todo va con backpressure (una página por delante, sin caché de resúmenes ni de últimas respuestas), así
+    // que si el cliente lee despacio no se piden más miembros y la memoria no crece con el total.
+    // flatMapSequential mantiene el orden por ID: el cursor de cada registro (su ID) sirve para reanudar una
+    // exportación cortada aunque entretanto se hayan dado de alta o de baja miembros.
+    public Flux<MemberExportRecordDTO> exportMemberSummaries(long cursor, Set<SummaryField> fields) {
+        Set<SummaryField> sectionFields = EnumSet.noneOf(SummaryField.class);
+        sectionFields.addAll(fields);
+        sectionFields.remove(SummaryField.MEMBER);
+
+        return getIdentity().flatMapMany(identity -> {
+            AtomicLong exported = new AtomicLong();
+            long start = System.nanoTime();
+            return pageMembers(identity, cursor)
+                    .flatMapSequential(member -> exportMember(member, identity, fields, sectionFields), exportConcurrency, 1)
+                    .doOnNext(record -> {
+                        aggregationMetrics.recordExported(record.getStatus());
+                        long count = exported.incrementAndGet();
+                        if (count % exportProgressInterval == 0) {
+                            log.info("📦 Exportación: {} miembros (cursor {}), {}/s", count, record.getCursor(),
+                                    Math.round(count / ((System.nanoTime() - start) / 1e9)));
+                        }
+                    })
+                    .doOnSubscribe(subscription -> aggregationMetrics.exportStarted())
+                    .doFinally(signal -> {
+                        aggregationMetrics.exportFinished();
+                        log.info("📦 Exportación terminada ({}): {} miembros desde el cursor {} en {} ms", signal,
+                                exported.get(), cursor, Duration.ofNanos(System.nanoTime() - start).toMillis());
+                    });
+        });
+    }
+
+    // Las páginas se piden de una en una según se consumen, ordenadas por ID, y solo salen los miembros con
+    // ID mayor que el cursor y que el último emitido, así que reanudar no repite ni salta miembros aunque
+    // cambie la lista. Si member-microservice no ordena por ID, los que llegan fuera de orden se descartan
+    // con un aviso en el log. Se para con una página incompleta o vacía, o si devuelve otra vez la misma
+    // página (no admite paginación y ya se envió la lista completa, que se ordena aquí)
+    private Flux<Member> pageMembers(GatewayIdentity identity, long cursor) {
+        AtomicReference<Long> previousFirstId = new AtomicReference<>();
+        AtomicLong lastId = new AtomicLong(cursor);
+        return Flux.range(0, Integer.MAX_VALUE)
+                .concatMap(page -> fetchMemberPage(page, identity), 1)
+                .takeWhile(members -> !members.isEmpty()
+                        && !Objects.equals(previousFirstId.getAndSet(members.get(0).getId()), members.get(0).getId()))
+                .takeUntil(members -> members.size() != exportPageSize)
+                .flatMapIterable(members -> members.stream()
+                        .filter(member -> member.getId() != null)
+                        .sorted(Comparator.comparing(Member::getId))
+                        .toList())
+                .filter(member -> {
+                    if (member.getId() > lastId.get()) {
+                        lastId.set(member.getId());
+                        return true;
+                    }
+                    if (member.getId() > cursor) {
+                        log.warn("⚠️ Exportación: member-microservice devolvió el miembro {} fuera de orden (último {}), se omite",
+                                member.getId(), lastId.get());
+                    }
+                    return false;
                 });
     }
 
-    private Mono<Member> getMemberData(Long memberId, JwtInfo jwtInfo) {
-        String memberServiceUrl = getServiceUrl("member-microservice");
-        return webClient.get()
-                .uri(memberServiceUrl + "/api/members/" + memberId)
-                .headers(h -> addGatewayHeaders(h, jwtInfo))
-                .retrieve()
-                .bodyToMono(Member.class)
-                .doOnError(e -> log.warn("Error obteniendo datos del miembro desde member-microservice: {}", e.getMessage()))
-                .onErrorResume(WebClientResponseException.class, e -> {
-                    log.warn("❌ Member service devolvió {} {}", e.getRawStatusCode(), e.getStatusText());
-                    return Mono.just(new Member());
+    private Mono<List<Member>> fetchMemberPage(int page, GatewayIdentity identity) {
+        return callService(MEMBER_SERVICE, instance -> downstreamWebClients.forService(MEMBER_SERVICE).get()
+                        .uri(instance.getUri() + "/api/members?page=" + page + "&size=" + exportPageSize + "&sort=id,asc")
+                        .headers(identity::applyTo)
+                        .retrieve()
+                        .bodyToFlux(Member.class)
+                        .collectList())
+                .retryWhen(Retry.backoff(exportPageRetries, Duration.ofSeconds(1)))
+                .doOnError(e -> log.error("❌ Error obteniendo la página {} de miembros: {}", page, e.getMessage()));
+    }
+
+    // Un miembro fallido sale como ERROR y la exportación sigue; la sobrecarga se reintenta antes de darlo por fallido
+    private Mono<MemberExportRecordDTO> exportMember(Member member, GatewayIdentity identity,
+                                                     Set<SummaryField> fields, Set<SummaryField> sectionFields) {
+        Long memberId = member.getId();
+        Mono<MemberSummaryDTO> summary = sectionFields.isEmpty()
+                ? Mono.fromSupplier(() -> buildMemberSummary(memberId, sectionFields, new Object[0]))
+                : aggregate(memberId, identity, sectionFields);
+        return LastGoodResponses.bypass(summary)
+                .retryWhen(Retry.backoff(3, Duration.ofMillis(500)).filter(ServiceOverloadedException.class::isInstance))
+                .map(memberSummary -> {
+                    if (fields.contains(SummaryField.MEMBER)) {
+                        applyMember(memberSummary, member);
+                    }
+                    return MemberExportRecordDTO.ok(memberId, memberId, memberSummary);
                 })
-                .onErrorReturn(new Member());
+                .onErrorResume(err -> {
+                    log.warn("❌ Error exportando el miembro {}: {}", memberId, err.getMessage());
+                    return Mono.just(MemberExportRecordDTO.error(memberId, memberId, err.getMessage()));
+                });
+    }
+
+    private MemberSummaryEventDTO sectionError(String type, Long memberId, Throwable error) {
+        log.warn("Error obteniendo la sección {} del miembro {}: {}", type, memberId, error.getMessage());
+        MemberSummaryEventDTO event = MemberSummaryEventDTO.of(type, memberId);
+        event.setError(error.getMessage());
+        return event;
+    }
+
+    public int getBatchMaxSize() {
+        return batchMaxSize;
+    }
+
+    // Solo se llama a los microservicios de las secciones pedidas; cada sección devuelve cómo
+    // completar el resumen y se aplican todas al final
+    private Mono<MemberSummaryDTO> aggregate(Long memberId, GatewayIdentity identity, Set<SummaryField> fields) {
+        return Mono.deferContextual(ctx -> {
+            AggregationTrace trace = ctx.hasKey(AggregationTrace.class) ? ctx.get(AggregationTrace.class) : new AggregationTrace();
+            long start = System.nanoTime();
+            return aggregateSections(memberId, identity, fields)
+                    .map(summary -> markStale(summary, trace))
+                    .doOnSuccess(summary -> aggregationMetrics.recordSummary(start, trace, summary))
+                    .contextWrite(context -> context.put(AggregationTrace.class, trace));
+        });
+    }
+
+    private MemberSummaryDTO markStale(MemberSummaryDTO summary, AggregationTrace trace) {
+        List<String> staleSections = trace.staleSections();
+        if (!staleSections.isEmpty()) {
+            summary.setStale(true);
+            summary.setStaleSections(staleSections);
+        }
+        return summary;
     }
 
-    private Mono<List<GymClass>> getMemberClasses(Long memberId, JwtInfo jwtInfo) {
-        String classServiceUrl = getServiceUrl("class-microservice");
-        return webClient.get()
-                .uri(classServiceUrl + "/api/classes/member/" + memberId)
-                .headers(h -> addGatewayHeaders(h, jwtInfo))
+    private Mono<MemberSummaryDTO> aggregateSections(Long memberId, GatewayIdentity identity, Set<SummaryField> fields) {
+        List<Mono<Consumer<MemberSummaryDTO>>> sections = new ArrayList<>();
+
+        if (fields.contains(SummaryField.MEMBER)) {
+            sections.add(getMemberData(memberId, identity)
+                    .map(member -> summary -> applyMember(summary, member)));
+        }
+
+        if (fields.contains(SummaryField.CLASSES)) {
+            Mono<List<ClassSummaryDTO>> classes = getMemberClasses(memberId, identity);
+            if (fields.contains(SummaryField.COACHES)) {
+                classes = classes.flatMap(memberClasses -> enrichWithCoaches(memberClasses, identity));
+            }
+            sections.add(classes.map(memberClasses -> summary -> applyClasses(summary, memberClasses, fields)));
+        } else if (fields.contains(SummaryField.TOTAL_CLASSES)) {
+            sections.add(countMemberClasses(memberId, identity)
+                    .map(totalClasses -> summary -> summary.setTotalClasses(totalClasses)));
+        }
+
+        if (fields.contains(SummaryField.PAYMENTS)) {
+            sections.add(getMemberPayments(memberId, identity)
+                    .map(payments -> summary -> applyPayments(summary, payments, fields)));
+        } else if (fields.contains(SummaryField.TOTAL_PAYMENTS)) {
+            sections.add(sumMemberPayments(memberId, identity)
+                    .map(totalPayments -> summary -> summary.setTotalPayments(totalPayments)));
+        }
+
+        return Mono.zip(sections, results -> buildMemberSummary(memberId, fields, results));
+    }
+
+    private Mono<GatewayIdentity> getIdentity() {
+        return identityPropagation.currentIdentity()
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    log.warn("⚠️ No se encontró JWT en contexto, usando modo interno del Gateway");
+                    return GatewayIdentity.SYSTEM;
+                }));
+    }
+
+    private Mono<Member> getMemberData(Long memberId, GatewayIdentity identity) {
+        // un 404 es una respuesta correcta: se guarda como tal y no se sustituye por un miembro obsoleto
+        Mono<Member> member = callService(MEMBER_SERVICE, instance -> downstreamWebClients.forService(MEMBER_SERVICE).get()
+                        .uri(instance.getUri() + "/api/members/" + memberId)
+                        .headers(identity::applyTo)
+                        .retrieve()
+                        .bodyToMono(Member.class))
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.just(new Member()))
+                .doOnError(e -> log.warn("Error obteniendo datos del miembro desde member-microservice: {}", e.getMessage()));
+
+        // sin datos del miembro no hay resumen: el fallo se propaga para no confundirlo con un 404
+        return lastGoodResponses.fetch(SummaryField.MEMBER, memberId, identity, member, e -> {
+            if (e instanceof WebClientResponseException responseError) {
+                log.warn("❌ Member service devolvió {} {}", responseError.getRawStatusCode(), responseError.getStatusText());
+            }
+            return Mono.error(e);
+        });
+    }
+
+    // Las clases se convierten a ClassSummaryDTO según se decodifican, sin guardar las GymClassView
+    private Mono<List<ClassSummaryDTO>> getMemberClasses(Long memberId, GatewayIdentity identity) {
+        Mono<List<ClassSummaryDTO>> classes = callService(CLASS_SERVICE, instance -> requestMemberClasses(instance, memberId, identity)
+                        .map(this::convertToClassSummaryDTO)
+                        .collectList())
+                .doOnError(e -> log.warn("Error obteniendo clases desde class-microservice: {}", e.getMessage()));
+        return lastGoodResponses.fetch(SummaryField.CLASSES, memberId, identity, classes,
+                e -> fallback(CLASS_SERVICE, List.of(), e));
+    }
+
+    private Mono<Integer> countMemberClasses(Long memberId, GatewayIdentity identity) {
+        Mono<Integer> totalClasses = callService(CLASS_SERVICE, instance -> requestMemberClasses(instance, memberId, identity).count())
+                .map(Long::intValue)
+                .doOnError(e -> log.warn("Error obteniendo clases desde class-microservice: {}", e.getMessage()));
+        return lastGoodResponses.fetch(SummaryField.TOTAL_CLASSES, memberId, identity, totalClasses,
+                e -> fallback(CLASS_SERVICE, 0, e));
+    }
+
+    private Flux<GymClassView> fetchMemberClasses(Long memberId, GatewayIdentity identity) {
+        return streamService(CLASS_SERVICE, instance -> requestMemberClasses(instance, memberId, identity));
+    }
+
+    private Flux<GymClassView> requestMemberClasses(ServiceInstance instance, Long memberId, GatewayIdentity identity) {
+        return downstreamWebClients.forService(CLASS_SERVICE).get()
+                .uri(instance.getUri() + "/api/classes/member/" + memberId)
+                .headers(identity::applyTo)
                 .retrieve()
-                .bodyToFlux(GymClass.class)
-                .collectList()
-                .doOnError(e -> log.warn("Error obteniendo clases desde class-microservice: {}", e.getMessage()))
-                .onErrorReturn(List.of());
+                .bodyToFlux(GymClassView.class);
+    }
+
+    // Un solo paso para todas las clases: cada coach distinto se pide una vez (y normalmente sale de
+    // CoachCache), con como mucho coachConcurrency llamadas en paralelo. Una clase cuyo coach no se
+    // pudo obtener queda sin el campo coach. Las clases pueden venir de LastGoodResponses o de un resumen
+    // cacheado, así que se devuelven copias y nunca se modifican las recibidas.
+    private Mono<List<ClassSummaryDTO>> enrichWithCoaches(List<ClassSummaryDTO> classes, GatewayIdentity identity) {
+        List<Long> coachIds = classes.stream()
+                .map(ClassSummaryDTO::getCoachId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (coachIds.isEmpty()) {
+            return Mono.just(classes);
+        }
+        return Flux.fromIterable(coachIds)
+                .flatMap(coachId -> coachCache.get(coachId, () -> getCoach(coachId, identity)), coachConcurrency)
+                .collectMap(CoachSummaryDTO::getId)
+                .map(coaches -> classes.stream()
+                        .map(gymClass -> withCoach(gymClass, coaches.get(gymClass.getCoachId())))
+                        .toList());
+    }
+
+    private static ClassSummaryDTO withCoach(ClassSummaryDTO gymClass, CoachSummaryDTO coach) {
+        ClassSummaryDTO copy = new ClassSummaryDTO();
+        copy.setId(gymClass.getId());
+        copy.setName(gymClass.getName());
+        copy.setSchedule(gymClass.getSchedule());
+        copy.setMaxCapacity(gymClass.getMaxCapacity());
+        copy.setCoachId(gymClass.getCoachId());
+        copy.setCoach(coach);
+        copy.setEnrolled(gymClass.getEnrolled());
+        return copy;
+    }
+
+    private Mono<CoachSummaryDTO> getCoach(Long coachId, GatewayIdentity identity) {
+        return callService(COACH_SERVICE, instance -> downstreamWebClients.forService(COACH_SERVICE).get()
+                        .uri(instance.getUri() + "/api/coaches/" + coachId)
+                        .headers(identity::applyTo)
+                        .retrieve()
+                        .bodyToMono(Coach.class))
+                .map(this::convertToCoachSummaryDTO)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> Mono.empty())
+                .doOnError(e -> log.warn("Error obteniendo coach {} desde coach-microservice: {}", coachId, e.getMessage()))
+                .onErrorResume(e -> aggregationMetrics.fallbackEmpty(COACH_SERVICE));
     }
 
-    private Mono<List<Payment>> getMemberPayments(Long memberId, JwtInfo jwtInfo) {
-        String paymentServiceUrl = getServiceUrl("payment-microservice");
-        return webClient.get()
-                .uri(paymentServiceUrl + "/api/payment/member/" + memberId)
-                .headers(h -> addGatewayHeaders(h, jwtInfo))
+    // El total se acumula mientras llegan los pagos, así que nunca se construye una List<Payment>
+    private Mono<PaymentsSection> getMemberPayments(Long memberId, GatewayIdentity identity) {
+        Mono<PaymentsSection> payments = callService(PAYMENT_SERVICE, instance -> requestMemberPayments(instance, memberId, identity, Payment.class)
+                        .collect(PaymentsSection::new, (section, payment) -> section.add(convertToPaymentSummaryDTO(payment))))
+                .doOnError(e -> log.warn("Error obteniendo pagos desde payment-microservice: {}", e.getMessage()));
+        return lastGoodResponses.fetch(SummaryField.PAYMENTS, memberId, identity, payments,
+                e -> fallback(PAYMENT_SERVICE, new PaymentsSection(), e));
+    }
+
+    private Mono<Double> sumMemberPayments(Long memberId, GatewayIdentity identity) {
+        Mono<Double> totalPayments = callService(PAYMENT_SERVICE, instance -> requestMemberPayments(instance, memberId, identity, PaymentAmount.class)
+                        .filter(payment -> payment.getAmount() != null)
+                        .reduce(0.0, (total, payment) -> total + payment.getAmount()))
+                .doOnError(e -> log.warn("Error obteniendo pagos desde payment-microservice: {}", e.getMessage()));
+        return lastGoodResponses.fetch(SummaryField.TOTAL_PAYMENTS, memberId, identity, totalPayments,
+                e -> fallback(PAYMENT_SERVICE, 0.0, e));
+    }
+
+    private Flux<Payment> fetchMemberPayments(Long memberId, GatewayIdentity identity) {
+        return streamService(PAYMENT_SERVICE, instance -> requestMemberPayments(instance, memberId, identity, Payment.class));
+    }
+
+    private <T> Flux<T> requestMemberPayments(ServiceInstance instance, Long memberId, GatewayIdentity identity, Class<T> type) {
+        return downstreamWebClients.forService(PAYMENT_SERVICE).get()
+                .uri(instance.getUri() + "/api/payment/member/" + memberId)
+                .headers(identity::applyTo)
                 .retrieve()
-                .bodyToFlux(Payment.class)
-                .collectList()
-                .doOnError(e -> log.warn("Error obteniendo pagos desde payment-microservice: {}", e.getMessage()))
-                .onErrorReturn(List.of());
-    }
-
-    private void addGatewayHeaders(org.springframework.http.HttpHeaders headers, JwtInfo jwtInfo) {
-        headers.add("Authorization", jwtInfo.token());
-        headers.add("X-Auth-Source", "gateway");
-        headers.add("X-User-Id", jwtInfo.userId());
-        headers.add("X-User-Name", jwtInfo.username());
-        headers.add("X-User-Email", jwtInfo.email());
-
-        List<String> roles = jwtInfo.roles();
-        if (roles == null || roles.isEmpty()) {
-            roles = List.of("ROLE_SYSTEM");
+                .bodyToFlux(type);
+    }
+
+    // Sin respuesta guardada, una sección fallida se completa con su valor vacío; si el microservicio
+    // está por encima de su límite de concurrencia se propaga el rechazo
+    private <T> Mono<T> fallback(String service, T value, Throwable error) {
+        if (error instanceof ServiceOverloadedException) {
+            return Mono.error(error);
         }
+        return aggregationMetrics.fallback(service, value);
+    }
+
+    // Llamada con respuesta única: pasa por el circuit breaker del servicio (abierto = error inmediato,
+    // sin tocar la red) y, si tarda, se cubre con una segunda llamada a otra instancia. Cada intento
+    // ocupa un hueco del límite de concurrencia del servicio. El fallback Mono::error deja pasar el error
+    // original: sin fallback llega envuelto en NoFallbackAvailableException y no se distinguiría la sobrecarga
+    // ni el circuito abierto
+    private <T> Mono<T> callService(String service, Function<ServiceInstance, Mono<T>> request) {
+        return circuitBreakerFactory.create(service).run(hedgedRequests.execute(service, instance ->
+                concurrencyLimiter.limit(service, () -> aggregationMetrics.timeLeg(service, instance, request.apply(instance)))
+                        .doOnError(e -> serviceInstanceResolver.reportFailure(instance, e))), Mono::error);
+    }
 
-        headers.add("X-User-Roles", String.join(",", roles));
+    // Respuesta en streaming: solo circuit breaker; una cobertura repetiría los elementos ya emitidos
+    private <T> Flux<T> streamService(String service, Function<ServiceInstance, Flux<T>> request) {
+        return circuitBreakerFactory.create(service).run(serviceInstanceResolver.resolve(service)
+                .flatMapMany(instance -> concurrencyLimiter.limitStream(service, () -> aggregationMetrics.timeLeg(service, instance, request.apply(instance)))
+                        .doOnError(e -> serviceInstanceResolver.reportFailure(instance, e))), Flux::error);
     }
 
-    private MemberSummaryDTO buildMemberSummary(Member member, List<GymClass> classes, List<Payment> payments) {
+    @SuppressWarnings("unchecked")
+    MemberSummaryDTO buildMemberSummary(Long memberId, Set<SummaryField> fields, Object[] sections) {
         MemberSummaryDTO summary = new MemberSummaryDTO();
 
+        if (!fields.contains(SummaryField.MEMBER)) {
+            // sin la sección del miembro no se consulta member-microservice; el resumen lleva el ID pedido
+            summary.setId(memberId);
+        }
+
+        for (Object section : sections) {
+            ((Consumer<MemberSummaryDTO>) section).accept(summary);
+        }
+
+        return summary;
+    }
+
+    void applyMember(MemberSummaryDTO summary, Member member) {
         if (member.getId() != null) {
             summary.setId(member.getId());
             summary.setName(member.getName());
             summary.setEmail(member.getEmail());
             summary.setRegistrationDate(member.getRegistrationDate());
         }
+    }
 
-        summary.setEnrolledClasses(classes.stream()
-                .map(this::convertToClassSummaryDTO)
-                .collect(Collectors.toList()));
+    void applyClasses(MemberSummaryDTO summary, List<ClassSummaryDTO> classes, Set<SummaryField> fields) {
+        summary.setEnrolledClasses(classes);
 
-        summary.setPayments(payments.stream()
-                .map(this::convertToPaymentSummaryDTO)
-                .collect(Collectors.toList()));
+        if (fields.contains(SummaryField.TOTAL_CLASSES)) {
+            summary.setTotalClasses(classes.size());
+        }
+    }
 
-        summary.setTotalPayments(payments.stream()
-                .mapToDouble(Payment::getAmount)
-                .sum());
-        summary.setTotalClasses(classes.size());
+    void applyPayments(MemberSummaryDTO summary, PaymentsSection payments, Set<SummaryField> fields) {
+        summary.setPayments(payments.payments());
 
-        return summary;
+        if (fields.contains(SummaryField.TOTAL_PAYMENTS)) {
+            summary.setTotalPayments(payments.total());
+        }
     }
 
-    private ClassSummaryDTO convertToClassSummaryDTO(GymClass gymClass) {
+    ClassSummaryDTO convertToClassSummaryDTO(GymClassView gymClass) {
         ClassSummaryDTO dto = new ClassSummaryDTO();
         dto.setId(gymClass.getId());
         dto.setName(gymClass.getName());
@@ -163,7 +572,16 @@ public class MemberAggregationService {
         return dto;
     }
 
-    private PaymentSummaryDTO convertToPaymentSummaryDTO(Payment payment) {
+    CoachSummaryDTO convertToCoachSummaryDTO(Coach coach) {
+        CoachSummaryDTO dto = new CoachSummaryDTO();
+        dto.setId(coach.getId());
+        dto.setName(coach.getName());
+        dto.setEmail(coach.getEmail());
+        dto.setSpecialty(coach.getSpecialty());
+        return dto;
+    }
+
+    PaymentSummaryDTO convertToPaymentSummaryDTO(Payment payment) {
         PaymentSummaryDTO dto = new PaymentSummaryDTO();
         dto.setId(payment.getId());
         dto.setMemberId(payment.getMemberId());
@@ -176,16 +594,4 @@ public class MemberAggregationService {
 
         return dto;
     }
-    
-    private String getServiceUrl(String serviceName) {
-        List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
-        if (instances.isEmpty()) {
-            log.error("❌ Service {} no encontrado en Eureka", serviceName);
-            throw new RuntimeException("Service " + serviceName + " not found");
-        }
-        ServiceInstance instance = instances.get(0);
-        return "http://" + instance.getHost() + ":" + instance.getPort();
-    }
-
-    private record JwtInfo(String token, String userId, String username, String email, List<String> roles) {}
 }
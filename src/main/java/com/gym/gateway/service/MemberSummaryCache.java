@@ -0,0 +1,86 @@
+package com.gym.gateway.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gym.gateway.dto.MemberSummaryDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+@Component
+public class MemberSummaryCache {
+
+    private final boolean enabled;
+    private final Set<String> sharedRoles;
+    private final AsyncCache<SummaryKey, MemberSummaryDTO> cache;
+
+    public MemberSummaryCache(@Value("${aggregation.cache.enabled:true}") boolean enabled,
+                              @Value("${aggregation.cache.max-size:10000}") long maxSize,
+                              @Value("${aggregation.cache.ttl:30s}") Duration ttl,
+                              @Value("${aggregation.cache.shared-roles:ROLE_ADMIN,ROLE_COACH}") Set<String> sharedRoles,
+                              MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.sharedRoles = sharedRoles;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size... con tag cache=memberSummary
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "memberSummary");
+    }
+
+    // Los misses concurrentes de la misma clave comparten el mismo future, así que solo uno hace el fan-out.
+    // Los resúmenes sin miembro (no encontrado o fallo) no se guardan: se emiten como Mono vacío y
+    // Caffeine descarta los futures que terminan en null o con error.
+    public Mono<MemberSummaryDTO> get(Long memberId, Set<SummaryField> fields, String userId, List<String> roles,
+                                      Supplier<Mono<MemberSummaryDTO>> loader) {
+        if (!enabled) {
+            return loader.get().filter(summary -> summary.getId() != null);
+        }
+        SummaryKey key = new SummaryKey(memberId, fields, scopeOf(userId, roles));
+        return Mono.deferContextual(ctx -> {
+                    AtomicBoolean loaded = new AtomicBoolean();
+                    CompletableFuture<MemberSummaryDTO> summary = cache.get(key, (k, executor) -> {
+                        loaded.set(true);
+                        return loader.get()
+                                .filter(built -> built.getId() != null)
+                                .contextWrite(ctx)
+                                .toFuture();
+                    });
+                    // se espera al fan-out de otra petición: no es un acierto, sus tiempos están en la traza de aquella
+                    AggregationTrace trace = ctx.getOrDefault(AggregationTrace.class, null);
+                    if (trace != null && !loaded.get() && !summary.isDone()) {
+                        trace.markCoalesced();
+                    }
+                    return Mono.fromFuture(summary, true);
+                })
+                // un resumen con secciones obsoletas se entrega pero no se reutiliza: la siguiente
+                // petición vuelve a intentar los microservicios
+                .doOnNext(summary -> {
+                    if (Boolean.TRUE.equals(summary.getStale())) {
+                        cache.synchronous().invalidate(key);
+                    }
+                });
+    }
+
+    // Los roles con visibilidad amplia comparten entradas entre usuarios con los mismos roles;
+    // el resto de llamantes solo ve las entradas que construyó con su propio usuario
+    String scopeOf(String userId, List<String> roles) {
+        List<String> sortedRoles = roles == null ? List.of() : roles.stream().sorted().distinct().toList();
+        String rolesScope = String.join(",", sortedRoles);
+        boolean shared = sortedRoles.stream().anyMatch(sharedRoles::contains);
+        return shared ? rolesScope : rolesScope + "|" + userId;
+    }
+
+    private record SummaryKey(Long memberId, Set<SummaryField> fields, String scope) {}
+}
@@ -0,0 +1,29 @@
+package com.gym.gateway.service;
+
+import com.gym.gateway.dto.PaymentSummaryDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Sección de pagos acumulada mientras se decodifica la respuesta: cada pago se convierte a
+// PaymentSummaryDTO y se suma al total según llega, sin pasar por una List<Payment>
+final class PaymentsSection {
+
+    private final List<PaymentSummaryDTO> payments = new ArrayList<>();
+    private double total;
+
+    void add(PaymentSummaryDTO payment) {
+        payments.add(payment);
+        if (payment.getAmount() != null) {
+            total += payment.getAmount();
+        }
+    }
+
+    List<PaymentSummaryDTO> payments() {
+        return payments;
+    }
+
+    double total() {
+        return total;
+    }
+}
@@ -0,0 +1,42 @@
+package com.gym.gateway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gym.gateway.dto.MemberSummaryDTO;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+// ETag débil (W/"<sha-256 del JSON>") de un resumen. Se memoiza por instancia: un acierto de
+// MemberSummaryCache devuelve el mismo objeto, así que los sondeos repetidos no vuelven a serializar.
+// Es débil porque el mismo resumen puede salir con o sin compresión.
+@Component
+public class SummaryETags {
+
+    private final ObjectMapper objectMapper;
+    private final Cache<MemberSummaryDTO, String> etags = Caffeine.newBuilder()
+            .weakKeys()
+            .maximumSize(10_000)
+            .build();
+
+    public SummaryETags(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String etagOf(MemberSummaryDTO summary) {
+        return etags.get(summary, this::computeETag);
+    }
+
+    private String computeETag(MemberSummaryDTO summary) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(summary));
+            return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No se pudo calcular el ETag del resumen", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.gym.gateway.service;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+// Secciones seleccionables del resumen (?fields=member,totalClasses). Las secciones no pedidas no
+// generan llamada a su microservicio y los totales se calculan sin construir las listas de DTOs.
+public enum SummaryField {
+    MEMBER("member"),
+    CLASSES("classes"),
+    PAYMENTS("payments"),
+    TOTAL_CLASSES("totalClasses"),
+    TOTAL_PAYMENTS("totalPayments"),
+    // completa cada clase con los datos de su coach; solo se admite junto a classes
+    COACHES("coaches");
+
+    public static final Set<SummaryField> ALL = Collections.unmodifiableSet(EnumSet.allOf(SummaryField.class));
+
+    private final String parameterName;
+
+    SummaryField(String parameterName) {
+        this.parameterName = parameterName;
+    }
+
+    public String getParameterName() {
+        return parameterName;
+    }
+
+    public static Set<SummaryField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return ALL;
+        }
+        Set<SummaryField> selected = EnumSet.noneOf(SummaryField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.parameterName.equalsIgnoreCase(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Campo de resumen desconocido: " + trimmed)));
+        }
+        if (selected.isEmpty()) {
+            return ALL;
+        }
+        // coaches no es una sección por sí misma: sin classes el resumen no tendría nada que pedir
+        if (selected.contains(COACHES) && !selected.contains(CLASSES)) {
+            throw new IllegalArgumentException("El campo coaches requiere classes");
+        }
+        return Collections.unmodifiableSet(selected);
+    }
+}